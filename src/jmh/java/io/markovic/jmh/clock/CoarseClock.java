@@ -0,0 +1,106 @@
+package io.markovic.jmh.clock;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A clock that's only as precise as its resolution, but costs readers a
+ * single memory read instead of a ~20 ns {@link System#nanoTime()} or
+ * {@link System#currentTimeMillis()} call (see SystemNanosVsMillis).
+ *
+ * <p>A daemon ticker thread re-reads the system clocks every
+ * {@code resolution} and publishes the values; readers only ever see the
+ * last published values. The ticker parks between updates, so the real
+ * resolution is bounded by the OS timer slack (~50-100 µs on Linux); don't
+ * expect a resolution below that to be honored.
+ *
+ * <p>Call {@link #close()} to stop the ticker thread.
+ */
+public final class CoarseClock implements MonotonicClock, AutoCloseable {
+  private static final VarHandle NANOS;
+  private static final VarHandle MILLIS;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      NANOS = lookup.findVarHandle(CoarseClock.class, "nanos", long.class);
+      MILLIS = lookup.findVarHandle(CoarseClock.class, "millis", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final long resolutionNanos;
+  private final Thread ticker;
+  private volatile boolean running = true;
+
+  // Only ever written by the ticker thread (and the constructor).
+  private long nanos;
+  private long millis;
+
+  private CoarseClock(long resolutionNanos) {
+    this.resolutionNanos = resolutionNanos;
+    tick();
+    ticker = new Thread(this::run, "coarse-clock-ticker");
+    ticker.setDaemon(true);
+  }
+
+  public static CoarseClock start(long resolution, TimeUnit unit) {
+    long resolutionNanos = unit.toNanos(resolution);
+    if (resolutionNanos <= 0) {
+      throw new IllegalArgumentException(
+          "Resolution must be positive, got: " + resolution + " " + unit);
+    }
+    CoarseClock clock = new CoarseClock(resolutionNanos);
+    clock.ticker.start();
+    return clock;
+  }
+
+  public long resolutionNanos() {
+    return resolutionNanos;
+  }
+
+  /**
+   * The last published {@link System#nanoTime()}, read with opaque
+   * semantics. Opaque is enough: we only need the read to not be hoisted out
+   * of loops, not any ordering with respect to other memory.
+   */
+  @Override
+  public long nanos() {
+    return (long) NANOS.getOpaque(this);
+  }
+
+  /** The last published {@link System#currentTimeMillis()}. */
+  public long currentTimeMillis() {
+    return (long) MILLIS.getOpaque(this);
+  }
+
+  /**
+   * Same as {@link #nanos()} but with a plain read. Cheapest possible read,
+   * but the JIT is free to hoist it out of a loop and never see an update;
+   * only use it where the caller re-reads it once per "event".
+   */
+  public long nanosPlain() {
+    return nanos;
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(ticker);
+  }
+
+  private void tick() {
+    NANOS.setOpaque(this, System.nanoTime());
+    MILLIS.setOpaque(this, System.currentTimeMillis());
+  }
+
+  private void run() {
+    while (running) {
+      LockSupport.parkNanos(this, resolutionNanos);
+      tick();
+    }
+  }
+}
@@ -0,0 +1,227 @@
+package io.markovic.jmh.clock;
+
+import java.time.Duration;
+
+/**
+ * {@link Duration}-like operations on a plain {@code long} count of
+ * nanoseconds, so that passing a duration around never allocates (see
+ * DurationOverhead for when a {@code Duration} stops being scalarized).
+ *
+ * <p>A {@code long} of nanos covers ±292 years, which is plenty for
+ * timeouts and latencies but NOT the full range of {@code Duration}. All
+ * conversions into nanos and all arithmetic throw {@link ArithmeticException}
+ * on overflow, same as {@code Duration} does.
+ */
+public final class Nanos {
+  public static final long ZERO = 0L;
+
+  /**
+   * The longest string {@link #format(long, char[], int)} can write:
+   * {@code PT-2562047H-47M-16.854775808S}.
+   */
+  public static final int MAX_FORMATTED_LENGTH = 29;
+
+  private static final long NANOS_PER_MICRO = 1_000L;
+  private static final long NANOS_PER_MILLI = 1_000_000L;
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  private static final long NANOS_PER_MINUTE = 60 * NANOS_PER_SECOND;
+  private static final long NANOS_PER_HOUR = 60 * NANOS_PER_MINUTE;
+  private static final long NANOS_PER_DAY = 24 * NANOS_PER_HOUR;
+
+  private Nanos() {}
+
+  public static long ofMicros(long micros) {
+    return Math.multiplyExact(micros, NANOS_PER_MICRO);
+  }
+
+  public static long ofMillis(long millis) {
+    return Math.multiplyExact(millis, NANOS_PER_MILLI);
+  }
+
+  public static long ofSeconds(long seconds) {
+    return Math.multiplyExact(seconds, NANOS_PER_SECOND);
+  }
+
+  public static long ofMinutes(long minutes) {
+    return Math.multiplyExact(minutes, NANOS_PER_MINUTE);
+  }
+
+  public static long ofHours(long hours) {
+    return Math.multiplyExact(hours, NANOS_PER_HOUR);
+  }
+
+  public static long ofDays(long days) {
+    return Math.multiplyExact(days, NANOS_PER_DAY);
+  }
+
+  public static long of(Duration duration) {
+    return duration.toNanos();
+  }
+
+  // Like the Duration equivalents, all of the to*() methods truncate
+  // towards zero.
+
+  public static long toMicros(long nanos) {
+    return nanos / NANOS_PER_MICRO;
+  }
+
+  public static long toMillis(long nanos) {
+    return nanos / NANOS_PER_MILLI;
+  }
+
+  public static long toSeconds(long nanos) {
+    return nanos / NANOS_PER_SECOND;
+  }
+
+  public static long toMinutes(long nanos) {
+    return nanos / NANOS_PER_MINUTE;
+  }
+
+  public static long toHours(long nanos) {
+    return nanos / NANOS_PER_HOUR;
+  }
+
+  public static long toDays(long nanos) {
+    return nanos / NANOS_PER_DAY;
+  }
+
+  public static Duration toDuration(long nanos) {
+    return Duration.ofNanos(nanos);
+  }
+
+  /** Nanos from {@code startNanos} to {@code endNanos}. */
+  public static long between(long startNanos, long endNanos) {
+    return Math.subtractExact(endNanos, startNanos);
+  }
+
+  public static long plus(long nanos, long otherNanos) {
+    return Math.addExact(nanos, otherNanos);
+  }
+
+  public static long minus(long nanos, long otherNanos) {
+    return Math.subtractExact(nanos, otherNanos);
+  }
+
+  public static long multipliedBy(long nanos, long multiplicand) {
+    return Math.multiplyExact(nanos, multiplicand);
+  }
+
+  public static long dividedBy(long nanos, long divisor) {
+    return nanos / divisor;
+  }
+
+  public static long negated(long nanos) {
+    return Math.negateExact(nanos);
+  }
+
+  public static long abs(long nanos) {
+    return nanos < 0 ? negated(nanos) : nanos;
+  }
+
+  public static int compare(long nanos, long otherNanos) {
+    return Long.compare(nanos, otherNanos);
+  }
+
+  public static boolean isZero(long nanos) {
+    return nanos == 0;
+  }
+
+  public static boolean isNegative(long nanos) {
+    return nanos < 0;
+  }
+
+  /**
+   * Writes {@code nanos} into {@code dst} starting at {@code offset} in the
+   * exact same ISO-8601 format as {@link Duration#toString()} (e.g.
+   * {@code PT8H6M12.345S}) and returns the offset just past the last char
+   * written. {@code dst} needs room for {@link #MAX_FORMATTED_LENGTH} chars.
+   */
+  public static int format(long nanos, char[] dst, int offset) {
+    if (dst.length - offset < MAX_FORMATTED_LENGTH) {
+      throw new IndexOutOfBoundsException(
+          "Need " + MAX_FORMATTED_LENGTH + " chars from offset " + offset
+          + ", buffer length is " + dst.length);
+    }
+
+    int pos = offset;
+    dst[pos++] = 'P';
+    dst[pos++] = 'T';
+    if (nanos == 0) {
+      dst[pos++] = '0';
+      dst[pos++] = 'S';
+      return pos;
+    }
+
+    // Same split as Duration itself: floored seconds plus a non-negative
+    // nano adjustment. Duration.toString() builds on that split, so we do
+    // too or negative durations won't print the same.
+    long seconds = Math.floorDiv(nanos, NANOS_PER_SECOND);
+    int nanoAdjustment = (int) Math.floorMod(nanos, NANOS_PER_SECOND);
+    long effectiveSeconds = seconds;
+    if (seconds < 0 && nanoAdjustment > 0) {
+      effectiveSeconds++;
+    }
+    long hours = effectiveSeconds / 3600;
+    int minutes = (int) ((effectiveSeconds % 3600) / 60);
+    int secs = (int) (effectiveSeconds % 60);
+
+    if (hours != 0) {
+      pos = writeLong(hours, dst, pos);
+      dst[pos++] = 'H';
+    }
+    if (minutes != 0) {
+      pos = writeLong(minutes, dst, pos);
+      dst[pos++] = 'M';
+    }
+    if (secs == 0 && nanoAdjustment == 0) {
+      return pos;
+    }
+    if (seconds < 0 && nanoAdjustment > 0 && secs == 0) {
+      dst[pos++] = '-';
+      dst[pos++] = '0';
+    } else {
+      pos = writeLong(secs, dst, pos);
+    }
+    if (nanoAdjustment > 0) {
+      int fraction = seconds < 0
+          ? (int) (NANOS_PER_SECOND - nanoAdjustment)
+          : nanoAdjustment;
+      dst[pos++] = '.';
+      for (int divisor = 100_000_000; fraction > 0; divisor /= 10) {
+        dst[pos++] = (char) ('0' + fraction / divisor);
+        fraction %= divisor;
+      }
+    }
+    dst[pos++] = 'S';
+    return pos;
+  }
+
+  /**
+   * Convenience for logging and debugging; this allocates, so use
+   * {@link #format(long, char[], int)} on hot paths.
+   */
+  public static String toString(long nanos) {
+    char[] buffer = new char[MAX_FORMATTED_LENGTH];
+    return new String(buffer, 0, format(nanos, buffer, 0));
+  }
+
+  private static int writeLong(long value, char[] dst, int pos) {
+    if (value < 0) {
+      dst[pos++] = '-';
+    } else {
+      // Work with negative numbers so Long.MIN_VALUE doesn't need a special
+      // case (not that hours or minutes can get anywhere near it).
+      value = -value;
+    }
+    int digits = 1;
+    for (long v = value; v <= -10; v /= 10) {
+      digits++;
+    }
+    int end = pos + digits;
+    for (int i = end - 1; i >= pos; i--) {
+      dst[i] = (char) ('0' - value % 10);
+      value /= 10;
+    }
+    return end;
+  }
+}
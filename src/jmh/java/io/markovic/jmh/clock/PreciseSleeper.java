@@ -0,0 +1,83 @@
+package io.markovic.jmh.clock;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sleeps much closer to the requested time than {@link Thread#sleep(long)}
+ * or {@link LockSupport#parkNanos(long)}, which both wake up ~50-100 µs
+ * late on Linux (see InstantOverhead, where a 2 ms sleep takes 2.109 ms).
+ *
+ * <p>It parks until {@code spinThresholdNanos} before the deadline and then
+ * busy-spins (with {@link Thread#onSpinWait()}) for the rest, so it trades
+ * up to {@code spinThresholdNanos} of CPU per sleep for accuracy. A
+ * threshold of 0 is a plain {@code parkNanos} loop; {@link Long#MAX_VALUE}
+ * never parks. Use {@link #calibrate()} to pick a threshold that covers the
+ * park overshoot on the current machine.
+ */
+public final class PreciseSleeper {
+  private static final long CALIBRATION_PARK_NANOS =
+      TimeUnit.MICROSECONDS.toNanos(100);
+  private static final int CALIBRATION_SAMPLES = 200;
+  private static final double CALIBRATION_PERCENTILE = 0.99;
+
+  private final long spinThresholdNanos;
+
+  public PreciseSleeper(long spinThresholdNanos) {
+    if (spinThresholdNanos < 0) {
+      throw new IllegalArgumentException(
+          "spinThresholdNanos must not be negative, got: "
+          + spinThresholdNanos);
+    }
+    this.spinThresholdNanos = spinThresholdNanos;
+  }
+
+  /**
+   * Measures how late {@code parkNanos} wakes up on this machine and
+   * returns a sleeper that spins for that long (the p99 overshoot). Takes
+   * ~20-40 ms.
+   */
+  public static PreciseSleeper calibrate() {
+    long[] overshoots = new long[CALIBRATION_SAMPLES];
+    for (int i = 0; i < overshoots.length; i++) {
+      long start = System.nanoTime();
+      LockSupport.parkNanos(CALIBRATION_PARK_NANOS);
+      overshoots[i] = System.nanoTime() - start - CALIBRATION_PARK_NANOS;
+    }
+    Arrays.sort(overshoots);
+    int index = (int) (CALIBRATION_PERCENTILE * (overshoots.length - 1));
+    return new PreciseSleeper(Math.max(0, overshoots[index]));
+  }
+
+  public long spinThresholdNanos() {
+    return spinThresholdNanos;
+  }
+
+  public void sleep(long duration, TimeUnit unit) throws InterruptedException {
+    sleepNanos(unit.toNanos(duration));
+  }
+
+  public void sleepNanos(long nanos) throws InterruptedException {
+    sleepUntil(System.nanoTime() + nanos);
+  }
+
+  /**
+   * Returns once {@link System#nanoTime()} reaches {@code deadlineNanos}.
+   * Like {@link Thread#sleep(long)}, throws (and clears the interrupt
+   * status) if the thread is interrupted.
+   */
+  public void sleepUntil(long deadlineNanos) throws InterruptedException {
+    long remaining;
+    while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      if (remaining > spinThresholdNanos) {
+        LockSupport.parkNanos(this, remaining - spinThresholdNanos);
+      } else {
+        Thread.onSpinWait();
+      }
+    }
+  }
+}
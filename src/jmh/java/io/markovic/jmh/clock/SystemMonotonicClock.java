@@ -0,0 +1,12 @@
+package io.markovic.jmh.clock;
+
+// An enum so there's exactly one instance and call sites using
+// MonotonicClock.SYSTEM see a single receiver type (and thus get inlined).
+enum SystemMonotonicClock implements MonotonicClock {
+  INSTANCE;
+
+  @Override
+  public long nanos() {
+    return System.nanoTime();
+  }
+}
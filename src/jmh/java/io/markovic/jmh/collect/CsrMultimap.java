@@ -0,0 +1,161 @@
+package io.markovic.jmh.collect;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable multimap in compressed sparse row (CSR) layout: the keys in
+ * one sorted array, every key's values back to back in one values array,
+ * and an {@code int[]} of offsets saying where each key's values start.
+ * A {@code Map<K, List<V>>} holds a map node, a list and a list array per
+ * key; this holds three arrays, however many keys there are.
+ *
+ * <p>Keys are addressed by their index in sorted order; {@link #indexOf}
+ * finds it by binary search. {@link #valueCount(int)} and {@link #size()}
+ * are O(1) reads of the offsets.
+ */
+public final class CsrMultimap<K, V> {
+  private final Object[] keys;
+  // Key i's values are values[offsets[i], offsets[i + 1]).
+  private final int[] offsets;
+  private final Object[] values;
+  private final Comparator<? super K> comparator;
+
+  private CsrMultimap(Object[] keys, int[] offsets, Object[] values,
+                      Comparator<? super K> comparator) {
+    this.keys = keys;
+    this.offsets = offsets;
+    this.values = values;
+    this.comparator = comparator;
+  }
+
+  /** A copy of {@code map}, with its keys in natural order. */
+  public static <K extends Comparable<? super K>, V> CsrMultimap<K, V> copyOf(
+      Map<K, ? extends Collection<? extends V>> map) {
+    return copyOf(map, Comparator.naturalOrder());
+  }
+
+  /**
+   * A copy of {@code map}, with its keys sorted by {@code comparator}
+   * (which must not find any two of them equal). Keys without values are
+   * kept.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public static <K, V> CsrMultimap<K, V> copyOf(
+      Map<K, ? extends Collection<? extends V>> map,
+      Comparator<? super K> comparator) {
+    Map.Entry<K, ? extends Collection<? extends V>>[] entries =
+        map.entrySet().toArray(new Map.Entry[0]);
+    Arrays.sort(entries, (a, b) -> comparator.compare(a.getKey(),
+                                                       b.getKey()));
+
+    Object[] keys = new Object[entries.length];
+    int[] offsets = new int[entries.length + 1];
+    long total = 0;
+    for (int i = 0; i < entries.length; i++) {
+      keys[i] = entries[i].getKey();
+      total += entries[i].getValue().size();
+      if (total > Integer.MAX_VALUE - 8) {
+        throw new OutOfMemoryError(
+            "CsrMultimap can't hold more than " + (Integer.MAX_VALUE - 8)
+            + " values");
+      }
+      offsets[i + 1] = (int) total;
+    }
+    for (int i = 1; i < keys.length; i++) {
+      if (comparator.compare((K) keys[i - 1], (K) keys[i]) == 0) {
+        throw new IllegalArgumentException(
+            "Keys must be distinct under the comparator, got: "
+            + keys[i - 1] + ", " + keys[i]);
+      }
+    }
+
+    Object[] values = new Object[(int) total];
+    for (int i = 0; i < entries.length; i++) {
+      int pos = offsets[i];
+      for (V value : entries[i].getValue()) {
+        values[pos++] = value;
+      }
+      if (pos != offsets[i + 1]) {
+        throw new IllegalArgumentException(
+            "Values of " + keys[i] + " changed while copying");
+      }
+    }
+    return new CsrMultimap<>(keys, offsets, values, comparator);
+  }
+
+  public int keyCount() {
+    return keys.length;
+  }
+
+  /** The number of values, over all keys. */
+  public int size() {
+    return offsets[keys.length];
+  }
+
+  @SuppressWarnings("unchecked")
+  public K key(int index) {
+    checkIndex(index);
+    return (K) keys[index];
+  }
+
+  /**
+   * The index of {@code key}, or like {@link Arrays#binarySearch}
+   * {@code -(insertion point) - 1} if it isn't there.
+   */
+  @SuppressWarnings("unchecked")
+  public int indexOf(K key) {
+    return Arrays.binarySearch(keys, key, (Comparator<Object>) comparator);
+  }
+
+  public boolean containsKey(K key) {
+    return indexOf(key) >= 0;
+  }
+
+  public int valueCount(int index) {
+    checkIndex(index);
+    return offsets[index + 1] - offsets[index];
+  }
+
+  /** The number of values of {@code key}, 0 if it isn't there. */
+  public int valueCount(K key) {
+    int index = indexOf(key);
+    return index < 0 ? 0 : offsets[index + 1] - offsets[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  public V value(int index, int i) {
+    int count = valueCount(index);
+    if (i < 0 || i >= count) {
+      throw new IndexOutOfBoundsException(
+          "Index " + i + " out of bounds for length " + count);
+    }
+    return (V) values[offsets[index] + i];
+  }
+
+  /** An unmodifiable view of the values of key {@code index}. */
+  @SuppressWarnings("unchecked")
+  public List<V> values(int index) {
+    checkIndex(index);
+    List<Object> view =
+        Arrays.asList(values).subList(offsets[index], offsets[index + 1]);
+    return (List<V>) Collections.unmodifiableList(view);
+  }
+
+  /** The values of {@code key}, empty if it isn't there. */
+  public List<V> get(K key) {
+    int index = indexOf(key);
+    return index < 0 ? Collections.emptyList() : values(index);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= keys.length) {
+      throw new IndexOutOfBoundsException(
+          "Index " + index + " out of bounds for size " + keys.length);
+    }
+  }
+}
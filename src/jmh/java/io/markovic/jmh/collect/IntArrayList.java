@@ -0,0 +1,198 @@
+package io.markovic.jmh.collect;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+
+/**
+ * A growable list of {@code int}s backed by an {@code int[]}: what
+ * {@code ArrayList<Integer>} would be without a box per element. Elements
+ * take 4 bytes each (plus up to 50% spare capacity after growing), are
+ * contiguous in memory, and reading one is a plain array load.
+ *
+ * <p>Not thread-safe. Doesn't implement {@code List<Integer>} on purpose:
+ * every method of that interface would box.
+ */
+public final class IntArrayList {
+  private static final int DEFAULT_CAPACITY = 10;
+  private static final int[] EMPTY = {};
+  // Same limit as ArrayList: some VMs reserve header words in arrays.
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  private int[] values;
+  private int size;
+
+  public IntArrayList() {
+    this.values = EMPTY;
+  }
+
+  public IntArrayList(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException(
+          "initialCapacity must not be negative, got: " + initialCapacity);
+    }
+    this.values = initialCapacity == 0 ? EMPTY : new int[initialCapacity];
+  }
+
+  /** A list holding a copy of {@code values}. */
+  public static IntArrayList of(int... values) {
+    IntArrayList list = new IntArrayList(values.length);
+    list.addAll(values);
+    return list;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int capacity() {
+    return values.length;
+  }
+
+  public int get(int index) {
+    checkIndex(index);
+    return values[index];
+  }
+
+  /** Replaces the value at {@code index} and returns the old one. */
+  public int set(int index, int value) {
+    checkIndex(index);
+    int old = values[index];
+    values[index] = value;
+    return old;
+  }
+
+  public void add(int value) {
+    if (size == values.length) {
+      grow(size + 1);
+    }
+    values[size++] = value;
+  }
+
+  public void addAll(int[] values) {
+    addAll(values, 0, values.length);
+  }
+
+  /** Appends {@code length} values starting at {@code offset}, in bulk. */
+  public void addAll(int[] values, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > values.length - length) {
+      throw new IndexOutOfBoundsException(
+          "Range [" + offset + ", " + offset + " + " + length
+          + ") out of bounds for length " + values.length);
+    }
+    if (length > MAX_CAPACITY - size) {
+      throw new OutOfMemoryError(
+          "Required capacity too large: " + ((long) size + length));
+    }
+    ensureCapacity(size + length);
+    System.arraycopy(values, offset, this.values, size, length);
+    size += length;
+  }
+
+  public void addAll(IntArrayList other) {
+    addAll(other.values, 0, other.size);
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > values.length) {
+      grow(minCapacity);
+    }
+  }
+
+  /** Drops the spare capacity. */
+  public void trimToSize() {
+    if (size < values.length) {
+      values = size == 0 ? EMPTY : Arrays.copyOf(values, size);
+    }
+  }
+
+  public void forEach(IntConsumer action) {
+    int[] values = this.values;
+    for (int i = 0; i < size; i++) {
+      action.accept(values[i]);
+    }
+  }
+
+  /** The sum of all values, as a {@code long} so it can't overflow. */
+  public long sum() {
+    int[] values = this.values;
+    long sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += values[i];
+    }
+    return sum;
+  }
+
+  public int reduce(int identity, IntBinaryOperator op) {
+    int[] values = this.values;
+    int result = identity;
+    for (int i = 0; i < size; i++) {
+      result = op.applyAsInt(result, values[i]);
+    }
+    return result;
+  }
+
+  public int[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof IntArrayList)) {
+      return false;
+    }
+    IntArrayList other = (IntArrayList) o;
+    return Arrays.equals(values, 0, size, other.values, 0, other.size);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 1;
+    for (int i = 0; i < size; i++) {
+      hash = 31 * hash + values[i];
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(values[i]);
+    }
+    return sb.append(']').toString();
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(
+          "Index " + index + " out of bounds for size " + size);
+    }
+  }
+
+  private void grow(int minCapacity) {
+    if (minCapacity > MAX_CAPACITY) {
+      throw new OutOfMemoryError(
+          "Required capacity too large: " + minCapacity);
+    }
+    // Grow by 50% like ArrayList, but at least to what's needed.
+    long grown = Math.max(DEFAULT_CAPACITY,
+                          values.length + (long) (values.length >> 1));
+    values = Arrays.copyOf(
+        values, (int) Math.min(MAX_CAPACITY, Math.max(minCapacity, grown)));
+  }
+}
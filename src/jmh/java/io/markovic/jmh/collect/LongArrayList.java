@@ -0,0 +1,198 @@
+package io.markovic.jmh.collect;
+
+import java.util.Arrays;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+
+/**
+ * A growable list of {@code long}s backed by a {@code long[]}: what
+ * {@code ArrayList<Long>} would be without a box per element. Elements
+ * take 8 bytes each (plus up to 50% spare capacity after growing), are
+ * contiguous in memory, and reading one is a plain array load.
+ *
+ * <p>Not thread-safe. Doesn't implement {@code List<Long>} on purpose:
+ * every method of that interface would box.
+ */
+public final class LongArrayList {
+  private static final int DEFAULT_CAPACITY = 10;
+  private static final long[] EMPTY = {};
+  // Same limit as ArrayList: some VMs reserve header words in arrays.
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  private long[] values;
+  private int size;
+
+  public LongArrayList() {
+    this.values = EMPTY;
+  }
+
+  public LongArrayList(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException(
+          "initialCapacity must not be negative, got: " + initialCapacity);
+    }
+    this.values = initialCapacity == 0 ? EMPTY : new long[initialCapacity];
+  }
+
+  /** A list holding a copy of {@code values}. */
+  public static LongArrayList of(long... values) {
+    LongArrayList list = new LongArrayList(values.length);
+    list.addAll(values);
+    return list;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int capacity() {
+    return values.length;
+  }
+
+  public long get(int index) {
+    checkIndex(index);
+    return values[index];
+  }
+
+  /** Replaces the value at {@code index} and returns the old one. */
+  public long set(int index, long value) {
+    checkIndex(index);
+    long old = values[index];
+    values[index] = value;
+    return old;
+  }
+
+  public void add(long value) {
+    if (size == values.length) {
+      grow(size + 1);
+    }
+    values[size++] = value;
+  }
+
+  public void addAll(long[] values) {
+    addAll(values, 0, values.length);
+  }
+
+  /** Appends {@code length} values starting at {@code offset}, in bulk. */
+  public void addAll(long[] values, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > values.length - length) {
+      throw new IndexOutOfBoundsException(
+          "Range [" + offset + ", " + offset + " + " + length
+          + ") out of bounds for length " + values.length);
+    }
+    if (length > MAX_CAPACITY - size) {
+      throw new OutOfMemoryError(
+          "Required capacity too large: " + ((long) size + length));
+    }
+    ensureCapacity(size + length);
+    System.arraycopy(values, offset, this.values, size, length);
+    size += length;
+  }
+
+  public void addAll(LongArrayList other) {
+    addAll(other.values, 0, other.size);
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > values.length) {
+      grow(minCapacity);
+    }
+  }
+
+  /** Drops the spare capacity. */
+  public void trimToSize() {
+    if (size < values.length) {
+      values = size == 0 ? EMPTY : Arrays.copyOf(values, size);
+    }
+  }
+
+  public void forEach(LongConsumer action) {
+    long[] values = this.values;
+    for (int i = 0; i < size; i++) {
+      action.accept(values[i]);
+    }
+  }
+
+  /** The sum of all values; overflows silently, like {@code +}. */
+  public long sum() {
+    long[] values = this.values;
+    long sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += values[i];
+    }
+    return sum;
+  }
+
+  public long reduce(long identity, LongBinaryOperator op) {
+    long[] values = this.values;
+    long result = identity;
+    for (int i = 0; i < size; i++) {
+      result = op.applyAsLong(result, values[i]);
+    }
+    return result;
+  }
+
+  public long[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof LongArrayList)) {
+      return false;
+    }
+    LongArrayList other = (LongArrayList) o;
+    return Arrays.equals(values, 0, size, other.values, 0, other.size);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 1;
+    for (int i = 0; i < size; i++) {
+      hash = 31 * hash + Long.hashCode(values[i]);
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(values[i]);
+    }
+    return sb.append(']').toString();
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(
+          "Index " + index + " out of bounds for size " + size);
+    }
+  }
+
+  private void grow(int minCapacity) {
+    if (minCapacity > MAX_CAPACITY) {
+      throw new OutOfMemoryError(
+          "Required capacity too large: " + minCapacity);
+    }
+    // Grow by 50% like ArrayList, but at least to what's needed.
+    long grown = Math.max(DEFAULT_CAPACITY,
+                          values.length + (long) (values.length >> 1));
+    values = Arrays.copyOf(
+        values, (int) Math.min(MAX_CAPACITY, Math.max(minCapacity, grown)));
+  }
+}
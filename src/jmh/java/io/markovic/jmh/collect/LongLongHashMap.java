@@ -0,0 +1,244 @@
+package io.markovic.jmh.collect;
+
+import java.util.Arrays;
+
+/**
+ * A {@code long} to {@code long} hash map with open addressing and linear
+ * probing: what {@code HashMap<Long, Long>} would be without a node and
+ * two boxes per entry. Keys and values sit next to each other in one
+ * {@code long[]}, so a lookup that hits its home slot touches a single
+ * cache line. A table filled up to its load factor {@code f} takes
+ * {@code 16 / f} bytes per entry, and twice that right after growing:
+ * 21-43 B with the default of 0.75, where {@code HashMap} takes ~70.
+ *
+ * <p>Removal shifts the following entries of the probe run back instead of
+ * leaving tombstones, so lookups never slow down after many removals and
+ * the table never needs rehashing to clean up.
+ *
+ * <p>Every {@code long} is a valid key, and every {@code long} a valid
+ * value; {@link #getOrDefault} tells a missing key apart. Not thread-safe.
+ */
+public final class LongLongHashMap {
+  // In slots; the table holds two longs per slot, and a Java array can't
+  // hold 2^31 of them.
+  private static final int MAX_CAPACITY = 1 << 29;
+  private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+  // Marks an empty slot; the key 0 itself is kept outside the table.
+  private static final long EMPTY = 0;
+
+  private final float loadFactor;
+  // table[2 * slot] is the key, table[2 * slot + 1] its value.
+  private long[] table;
+  private int mask;
+  private int shift;
+  private int threshold;
+  private int size;
+  private boolean hasZeroKey;
+  private long zeroValue;
+
+  public LongLongHashMap() {
+    this(16, DEFAULT_LOAD_FACTOR);
+  }
+
+  public LongLongHashMap(int expectedSize) {
+    this(expectedSize, DEFAULT_LOAD_FACTOR);
+  }
+
+  /**
+   * @param expectedSize how many entries fit before the table grows
+   * @param loadFactor   the fill ratio the table grows at, in (0, 1);
+   *                     higher saves memory at the cost of longer probes
+   */
+  public LongLongHashMap(int expectedSize, float loadFactor) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException(
+          "expectedSize must not be negative, got: " + expectedSize);
+    }
+    if (!(loadFactor > 0 && loadFactor < 1)) {
+      throw new IllegalArgumentException(
+          "loadFactor must be in (0, 1), got: " + loadFactor);
+    }
+    this.loadFactor = loadFactor;
+    allocate(capacityFor(expectedSize));
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** The number of slots in the table. */
+  public int capacity() {
+    return mask + 1;
+  }
+
+  public boolean containsKey(long key) {
+    if (key == EMPTY) {
+      return hasZeroKey;
+    }
+    return table[slot(key) << 1] == key;
+  }
+
+  public long getOrDefault(long key, long defaultValue) {
+    if (key == EMPTY) {
+      return hasZeroKey ? zeroValue : defaultValue;
+    }
+    int index = slot(key) << 1;
+    return table[index] == key ? table[index + 1] : defaultValue;
+  }
+
+  /**
+   * Maps {@code key} to {@code value}. Returns true if the key was new,
+   * false if it replaced an existing value.
+   */
+  public boolean put(long key, long value) {
+    if (key == EMPTY) {
+      zeroValue = value;
+      if (hasZeroKey) {
+        return false;
+      }
+      hasZeroKey = true;
+      size++;
+      return true;
+    }
+    int index = slot(key) << 1;
+    if (table[index] == key) {
+      table[index + 1] = value;
+      return false;
+    }
+    if (size >= threshold) {
+      grow();
+      index = slot(key) << 1;
+    }
+    table[index] = key;
+    table[index + 1] = value;
+    size++;
+    return true;
+  }
+
+  /** Removes {@code key}, returning true if it was there. */
+  public boolean remove(long key) {
+    if (key == EMPTY) {
+      if (!hasZeroKey) {
+        return false;
+      }
+      hasZeroKey = false;
+      zeroValue = 0;
+      size--;
+      return true;
+    }
+    int slot = slot(key);
+    if (table[slot << 1] != key) {
+      return false;
+    }
+    shiftBack(slot);
+    size--;
+    return true;
+  }
+
+  public void clear() {
+    Arrays.fill(table, EMPTY);
+    hasZeroKey = false;
+    zeroValue = 0;
+    size = 0;
+  }
+
+  /** Receives the entries of {@link #forEach}. */
+  @FunctionalInterface
+  public interface EntryConsumer {
+    void accept(long key, long value);
+  }
+
+  /** Calls {@code action} for every entry, in no particular order. */
+  public void forEach(EntryConsumer action) {
+    if (hasZeroKey) {
+      action.accept(EMPTY, zeroValue);
+    }
+    long[] table = this.table;
+    for (int i = 0; i < table.length; i += 2) {
+      if (table[i] != EMPTY) {
+        action.accept(table[i], table[i + 1]);
+      }
+    }
+  }
+
+  // The slot holding `key`, or the empty slot ending its probe run.
+  private int slot(long key) {
+    long[] table = this.table;
+    int slot = home(key);
+    while (true) {
+      long k = table[slot << 1];
+      if (k == key || k == EMPTY) {
+        return slot;
+      }
+      slot = slot + 1 & mask;
+    }
+  }
+
+  // Fibonacci hashing: the top bits of the product mix all bits of the
+  // key, so sequential ids spread over the table.
+  private int home(long key) {
+    return (int) (key * 0x9E37_79B9_7F4A_7C15L >>> shift);
+  }
+
+  // Empties `slot` by moving later entries of its probe run back into the
+  // gap (Knuth's Algorithm R), so no entry ends up behind an empty slot.
+  private void shiftBack(int slot) {
+    long[] table = this.table;
+    int gap = slot;
+    int next = gap;
+    while (true) {
+      next = next + 1 & mask;
+      long key = table[next << 1];
+      if (key == EMPTY) {
+        break;
+      }
+      // An entry can move back to the gap only if its home slot isn't in
+      // (gap, next], i.e. if the gap is still on its probe path.
+      if ((next - home(key) & mask) >= (next - gap & mask)) {
+        table[gap << 1] = key;
+        table[(gap << 1) + 1] = table[(next << 1) + 1];
+        gap = next;
+      }
+    }
+    table[gap << 1] = EMPTY;
+    table[(gap << 1) + 1] = 0;
+  }
+
+  private int capacityFor(int expectedSize) {
+    long needed = (long) Math.ceil(expectedSize / (double) loadFactor) + 1;
+    if (needed > MAX_CAPACITY) {
+      throw new OutOfMemoryError(
+          "Required capacity too large: " + needed);
+    }
+    return Math.max(2, Integer.highestOneBit((int) needed - 1) << 1);
+  }
+
+  private void allocate(int capacity) {
+    table = new long[capacity << 1];
+    mask = capacity - 1;
+    shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    threshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+  }
+
+  private void grow() {
+    if (capacity() == MAX_CAPACITY) {
+      throw new OutOfMemoryError(
+          "LongLongHashMap can't hold more than " + threshold + " entries");
+    }
+    long[] old = table;
+    allocate(capacity() << 1);
+    long[] table = this.table;
+    for (int i = 0; i < old.length; i += 2) {
+      long key = old[i];
+      if (key != EMPTY) {
+        int index = slot(key) << 1;
+        table[index] = key;
+        table[index + 1] = old[i + 1];
+      }
+    }
+  }
+}
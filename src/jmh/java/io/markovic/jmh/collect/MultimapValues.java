@@ -0,0 +1,142 @@
+package io.markovic.jmh.collect;
+
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A snapshot of a multimap's value collections (e.g. the values of a
+ * {@code Map<K, List<V>>}) that parallel streams split by value count
+ * instead of by key.
+ *
+ * <p>{@code HashMap}'s own spliterator splits its table in halves, so
+ * every chunk gets about the same number of keys. That's fine when work
+ * is per key, but when it's per value and one key holds most of them, one
+ * thread gets most of the work. {@link #spliterator()} instead splits
+ * where half of the values, by the prefix sums of the collections' sizes
+ * taken here, are on either side, so a hot key ends up alone in a chunk.
+ *
+ * <p>The snapshot holds the collections themselves, not copies: the sizes
+ * it splits by are those at the time of {@link #of}. Taking it is O(keys);
+ * every spliterator after that is O(1) to create.
+ */
+public final class MultimapValues<C extends Collection<?>> {
+  private final Object[] collections;
+  // cumulativeSizes[i] is the sum of the sizes of collections[0, i).
+  private final long[] cumulativeSizes;
+
+  private MultimapValues(Object[] collections, long[] cumulativeSizes) {
+    this.collections = collections;
+    this.cumulativeSizes = cumulativeSizes;
+  }
+
+  public static <C extends Collection<?>> MultimapValues<C> of(
+      Collection<? extends C> collections) {
+    Object[] array = collections.toArray();
+    long[] cumulativeSizes = new long[array.length + 1];
+    for (int i = 0; i < array.length; i++) {
+      if (array[i] == null) {
+        throw new NullPointerException("Null collection at " + i);
+      }
+      cumulativeSizes[i + 1] =
+          cumulativeSizes[i] + ((Collection<?>) array[i]).size();
+    }
+    return new MultimapValues<>(array, cumulativeSizes);
+  }
+
+  /** The number of collections (keys). */
+  public int size() {
+    return collections.length;
+  }
+
+  /** The number of values in all collections, when the snapshot was taken. */
+  public long valueCount() {
+    return cumulativeSizes[collections.length];
+  }
+
+  /** A SIZED and SUBSIZED spliterator that splits by value count. */
+  public Spliterator<C> spliterator() {
+    return new ValueCountSpliterator(0, collections.length);
+  }
+
+  public Stream<C> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  public Stream<C> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  private final class ValueCountSpliterator implements Spliterator<C> {
+    private int from;
+    private final int to;
+
+    ValueCountSpliterator(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public Spliterator<C> trySplit() {
+      if (to - from < 2) {
+        return null;
+      }
+      // The first collection whose start is at or past the middle value,
+      // but at least one collection into the range, and one short of its
+      // end, so that neither half is empty.
+      long middle = (cumulativeSizes[from] + cumulativeSizes[to]) >>> 1;
+      int low = from + 1;
+      int high = to - 1;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (cumulativeSizes[mid] < middle) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      // The collection before `low` may straddle the middle; give it to
+      // whichever half that leaves closer to even.
+      if (low - 1 > from && middle - cumulativeSizes[low - 1]
+                            < cumulativeSizes[low] - middle) {
+        low--;
+      }
+      Spliterator<C> prefix = new ValueCountSpliterator(from, low);
+      from = low;
+      return prefix;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean tryAdvance(Consumer<? super C> action) {
+      if (from >= to) {
+        return false;
+      }
+      action.accept((C) collections[from++]);
+      return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachRemaining(Consumer<? super C> action) {
+      Object[] collections = MultimapValues.this.collections;
+      int to = this.to;
+      for (int i = from; i < to; i++) {
+        action.accept((C) collections[i]);
+      }
+      from = to;
+    }
+
+    @Override
+    public long estimateSize() {
+      return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+      return SIZED | SUBSIZED | ORDERED | NONNULL | IMMUTABLE;
+    }
+  }
+}
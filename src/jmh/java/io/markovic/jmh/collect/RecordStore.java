@@ -0,0 +1,299 @@
+package io.markovic.jmh.collect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable table of fixed-schema records stored column by column
+ * ("struct of arrays"): one primitive array per field instead of one
+ * object per record. Where a {@code List<Event>} costs a reference and an
+ * object header per record, plus padding, and scattering the records over
+ * the heap, this costs exactly the fields' bytes, and a scan over one
+ * field reads one contiguous array.
+ *
+ * <p>The schema is the columns added with {@link #addLongColumn} and
+ * friends, which return a handle to read and write that field by row:
+ *
+ * <pre>{@code
+ * RecordStore events = new RecordStore(1024);
+ * RecordStore.LongColumn timestamp = events.addLongColumn("timestamp");
+ * RecordStore.DoubleColumn amount = events.addDoubleColumn("amount");
+ *
+ * int row = events.addRow();
+ * timestamp.set(row, now);
+ * amount.set(row, 9.99);
+ * }</pre>
+ *
+ * <p>Rows can be read by index through the columns, walked with a
+ * {@link Cursor}, or, for the fastest scans, through a column's backing
+ * array ({@link LongColumn#array()} etc.). Not thread-safe.
+ */
+public final class RecordStore {
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  private final List<Column> columns = new ArrayList<>();
+  private int capacity;
+  private int size;
+
+  public RecordStore() {
+    this(16);
+  }
+
+  public RecordStore(int expectedRows) {
+    if (expectedRows < 0) {
+      throw new IllegalArgumentException(
+          "expectedRows must not be negative, got: " + expectedRows);
+    }
+    this.capacity = expectedRows;
+  }
+
+  /** The number of rows. */
+  public int size() {
+    return size;
+  }
+
+  public LongColumn addLongColumn(String name) {
+    return addColumn(new LongColumn(name));
+  }
+
+  public IntColumn addIntColumn(String name) {
+    return addColumn(new IntColumn(name));
+  }
+
+  public DoubleColumn addDoubleColumn(String name) {
+    return addColumn(new DoubleColumn(name));
+  }
+
+  /**
+   * Appends a row with every field 0 and returns its index, for the
+   * caller to set the fields through the columns.
+   */
+  public int addRow() {
+    if (size == capacity) {
+      if (size == MAX_CAPACITY) {
+        throw new OutOfMemoryError(
+            "RecordStore can't hold more than " + MAX_CAPACITY + " rows");
+      }
+      // Grow by 50% like ArrayList.
+      capacity = (int) Math.min(
+          MAX_CAPACITY, Math.max(16, capacity + (long) (capacity >> 1)));
+      for (Column column : columns) {
+        column.resize(capacity);
+      }
+    }
+    return size++;
+  }
+
+  /** Removes all rows, keeping the columns and their capacity. */
+  public void clear() {
+    for (Column column : columns) {
+      column.clear();
+    }
+    size = 0;
+  }
+
+  /** A cursor before the first row. */
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  private <C extends Column> C addColumn(C column) {
+    for (Column existing : columns) {
+      if (existing.name().equals(column.name())) {
+        throw new IllegalArgumentException(
+            "Duplicate column: " + column.name());
+      }
+    }
+    column.resize(capacity);
+    columns.add(column);
+    return column;
+  }
+
+  private void checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException(
+          "Row " + row + " out of bounds for size " + size);
+    }
+  }
+
+  /** A field of every row. Belongs to the store that created it. */
+  public abstract class Column {
+    private final String name;
+
+    Column(String name) {
+      this.name = name;
+    }
+
+    public String name() {
+      return name;
+    }
+
+    // Reallocates the array at `capacity`, keeping the live rows and
+    // zeroing the rest.
+    abstract void resize(int capacity);
+
+    // Zeroes the live rows in place, so that addRow() hands out rows with
+    // every field 0 again.
+    abstract void clear();
+  }
+
+  public final class LongColumn extends Column {
+    private long[] values = {};
+
+    LongColumn(String name) {
+      super(name);
+    }
+
+    public long get(int row) {
+      checkRow(row);
+      return values[row];
+    }
+
+    public void set(int row, long value) {
+      checkRow(row);
+      values[row] = value;
+    }
+
+    /**
+     * The backing array, with row i at index i for
+     * {@code i < RecordStore.this.size()}. Only valid until the next
+     * {@link #addRow()}.
+     */
+    public long[] array() {
+      return values;
+    }
+
+    @Override
+    void resize(int capacity) {
+      long[] resized = new long[capacity];
+      System.arraycopy(values, 0, resized, 0, Math.min(size, values.length));
+      values = resized;
+    }
+
+    @Override
+    void clear() {
+      Arrays.fill(values, 0, size, 0);
+    }
+  }
+
+  public final class IntColumn extends Column {
+    private int[] values = {};
+
+    IntColumn(String name) {
+      super(name);
+    }
+
+    public int get(int row) {
+      checkRow(row);
+      return values[row];
+    }
+
+    public void set(int row, int value) {
+      checkRow(row);
+      values[row] = value;
+    }
+
+    /** See {@link LongColumn#array()}. */
+    public int[] array() {
+      return values;
+    }
+
+    @Override
+    void resize(int capacity) {
+      int[] resized = new int[capacity];
+      System.arraycopy(values, 0, resized, 0, Math.min(size, values.length));
+      values = resized;
+    }
+
+    @Override
+    void clear() {
+      Arrays.fill(values, 0, size, 0);
+    }
+  }
+
+  public final class DoubleColumn extends Column {
+    private double[] values = {};
+
+    DoubleColumn(String name) {
+      super(name);
+    }
+
+    public double get(int row) {
+      checkRow(row);
+      return values[row];
+    }
+
+    public void set(int row, double value) {
+      checkRow(row);
+      values[row] = value;
+    }
+
+    /** See {@link LongColumn#array()}. */
+    public double[] array() {
+      return values;
+    }
+
+    @Override
+    void resize(int capacity) {
+      double[] resized = new double[capacity];
+      System.arraycopy(values, 0, resized, 0, Math.min(size, values.length));
+      values = resized;
+    }
+
+    @Override
+    void clear() {
+      Arrays.fill(values, 0, size, 0);
+    }
+  }
+
+  /**
+   * Walks the rows in order, reading fields of the current one:
+   *
+   * <pre>{@code
+   * RecordStore.Cursor cursor = events.cursor();
+   * while (cursor.next()) {
+   *   total += cursor.get(amount);
+   * }
+   * }</pre>
+   *
+   * Rows added while walking are included.
+   */
+  public final class Cursor {
+    private int row = -1;
+
+    /** Moves to the next row; false if there's none. */
+    public boolean next() {
+      if (row + 1 >= size) {
+        row = size;
+        return false;
+      }
+      row++;
+      return true;
+    }
+
+    /** The index of the current row. */
+    public int row() {
+      return row;
+    }
+
+    public long get(LongColumn column) {
+      return column.values[checkedRow()];
+    }
+
+    public int get(IntColumn column) {
+      return column.values[checkedRow()];
+    }
+
+    public double get(DoubleColumn column) {
+      return column.values[checkedRow()];
+    }
+
+    private int checkedRow() {
+      if (row < 0 || row >= size) {
+        throw new IllegalStateException("Cursor isn't on a row");
+      }
+      return row;
+    }
+  }
+}
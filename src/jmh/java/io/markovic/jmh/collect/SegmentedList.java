@@ -0,0 +1,174 @@
+package io.markovic.jmh.collect;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * An append-only list that grows by adding fixed-size segments instead of
+ * copying its elements into a bigger array.
+ *
+ * <p>An {@code ArrayList} that doesn't know its final size copies every
+ * element it holds each time it grows by 50%, and at the moment it does,
+ * both the old and the new array are live: growing one past 100M elements
+ * briefly needs ~1 GB of references, most of it in the old generation.
+ * Here every segment holds 2<sup>segmentShift</sup> elements and, once
+ * allocated, never moves; growing only copies the (small) array of
+ * segments. Element {@code i} is at
+ * {@code segments[i >>> segmentShift][i & mask]}: two array loads instead
+ * of one.
+ *
+ * <p>Supports {@link #add(Object)}, {@link #get}, {@link #set} and
+ * {@link #clear()}; inserting and removing elements throw
+ * {@code UnsupportedOperationException}. Iterators are fail-fast. Not
+ * thread-safe.
+ */
+public final class SegmentedList<E> extends AbstractList<E>
+    implements RandomAccess {
+  private static final int DEFAULT_SEGMENT_SHIFT = 10;
+  private static final int MAX_SEGMENT_SHIFT = 30;
+  private static final Object[][] EMPTY = {};
+
+  private final int segmentShift;
+  private final int mask;
+  private Object[][] segments = EMPTY;
+  private int size;
+
+  /** A list with segments of 1024 elements. */
+  public SegmentedList() {
+    this(DEFAULT_SEGMENT_SHIFT);
+  }
+
+  /** A list with segments of {@code 1 << segmentShift} elements. */
+  public SegmentedList(int segmentShift) {
+    if (segmentShift < 0 || segmentShift > MAX_SEGMENT_SHIFT) {
+      throw new IllegalArgumentException(
+          "segmentShift must be in [0, " + MAX_SEGMENT_SHIFT + "], got: "
+          + segmentShift);
+    }
+    this.segmentShift = segmentShift;
+    this.mask = (1 << segmentShift) - 1;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    Objects.checkIndex(index, size);
+    return (E) segments[index >>> segmentShift][index & mask];
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E set(int index, E element) {
+    Objects.checkIndex(index, size);
+    Object[] segment = segments[index >>> segmentShift];
+    E old = (E) segment[index & mask];
+    segment[index & mask] = element;
+    return old;
+  }
+
+  @Override
+  public boolean add(E element) {
+    if (size == Integer.MAX_VALUE) {
+      throw new OutOfMemoryError("SegmentedList is full");
+    }
+    int segment = size >>> segmentShift;
+    if ((size & mask) == 0) {
+      addSegment(segment);
+    }
+    segments[segment][size & mask] = element;
+    size++;
+    modCount++;
+    return true;
+  }
+
+  private void addSegment(int segment) {
+    if (segment == segments.length) {
+      // Double the directory; at 1024 elements per segment, 100M elements
+      // need a directory of ~100K references.
+      Object[][] grown = new Object[Math.max(4, segment * 2)][];
+      System.arraycopy(segments, 0, grown, 0, segment);
+      segments = grown;
+    }
+    // clear() keeps the segments it has already allocated.
+    if (segments[segment] == null) {
+      segments[segment] = new Object[mask + 1];
+    }
+  }
+
+  /** Removes all elements, keeping the allocated segments for reuse. */
+  @Override
+  public void clear() {
+    int used = (size + mask) >>> segmentShift;
+    for (int i = 0; i < used; i++) {
+      Arrays.fill(segments[i], null);
+    }
+    size = 0;
+    modCount++;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Itr();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void forEach(Consumer<? super E> action) {
+    Objects.requireNonNull(action);
+    int expectedModCount = modCount;
+    int size = this.size;
+    int segmentSize = mask + 1;
+    for (int s = 0, start = 0; start < size; s++, start += segmentSize) {
+      Object[] segment = segments[s];
+      int end = Math.min(segmentSize, size - start);
+      for (int i = 0; i < end; i++) {
+        action.accept((E) segment[i]);
+      }
+    }
+    if (modCount != expectedModCount) {
+      throw new ConcurrentModificationException();
+    }
+  }
+
+  // Walks a segment at a time, so that next() is one array load, like
+  // ArrayList's.
+  private final class Itr implements Iterator<E> {
+    private int index;
+    private Object[] segment;
+    private final int expectedModCount = modCount;
+
+    @Override
+    public boolean hasNext() {
+      return index < size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      int i = index;
+      if (i >= size) {
+        throw new NoSuchElementException();
+      }
+      int offset = i & mask;
+      if (offset == 0) {
+        segment = segments[i >>> segmentShift];
+      }
+      index = i + 1;
+      return (E) segment[offset];
+    }
+  }
+}
@@ -0,0 +1,315 @@
+package io.markovic.jmh.collect;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An append-only list of strings stored back to back as UTF-8 in a single
+ * {@code byte[]}, with an {@code int[]} of offsets into it. Where an
+ * {@code ArrayList<String>} costs a reference, a String and a byte[] (two
+ * object headers, ~44 bytes before the characters) per element, this
+ * costs 4 bytes per element plus the UTF-8 bytes, and the GC only ever
+ * sees two arrays, however many strings there are.
+ *
+ * <p>Strings are addressed by the index {@link #add} returned. Their bytes
+ * can be read in place ({@link #array()}, {@link #offset}, {@link
+ * #byteLength}) or through a zero-copy {@link CharSequence} view ({@link
+ * #view}). Views of ASCII-only strings (tracked per string) have O(1)
+ * {@code charAt}; for anything else, {@code charAt} decodes from the start
+ * of the string.
+ *
+ * <p>Limited to 2 GB of UTF-8 in total. Not thread-safe.
+ */
+public final class StringArena {
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  private byte[] bytes;
+  // String i is bytes[offsets[i], offsets[i + 1]).
+  private int[] offsets;
+  // Bit i is set if string i is ASCII-only.
+  private long[] ascii;
+  private int size;
+
+  public StringArena() {
+    this(16, 256);
+  }
+
+  public StringArena(int expectedStrings, int expectedBytes) {
+    if (expectedStrings < 0 || expectedBytes < 0) {
+      throw new IllegalArgumentException(
+          "Expected sizes must not be negative, got: " + expectedStrings
+          + ", " + expectedBytes);
+    }
+    this.bytes = new byte[expectedBytes];
+    this.offsets = new int[expectedStrings + 1];
+    this.ascii = new long[(expectedStrings + 63) >>> 6];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** The UTF-8 bytes used by all strings. */
+  public int totalBytes() {
+    return offsets[size];
+  }
+
+  /** Appends {@code s} encoded as UTF-8 and returns its index. */
+  public int add(CharSequence s) {
+    int length = s.length();
+    // The worst case is 3 bytes per char (a surrogate pair is 4 bytes for 2
+    // chars).
+    ensureBytes(3L * length);
+    byte[] bytes = this.bytes;
+    int pos = offsets[size];
+    boolean isAscii = true;
+    for (int i = 0; i < length; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        bytes[pos++] = (byte) c;
+        continue;
+      }
+      if (c < 0x800) {
+        bytes[pos++] = (byte) (0xC0 | c >> 6);
+        bytes[pos++] = (byte) (0x80 | c & 0x3F);
+      } else if (Character.isHighSurrogate(c) && i + 1 < length
+                 && Character.isLowSurrogate(s.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, s.charAt(++i));
+        bytes[pos++] = (byte) (0xF0 | codePoint >> 18);
+        bytes[pos++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+        bytes[pos++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        bytes[pos++] = (byte) (0x80 | codePoint & 0x3F);
+      } else if (Character.isSurrogate(c)) {
+        // Unpaired surrogates can't be encoded; String.getBytes(UTF_8)
+        // replaces them with '?' too.
+        bytes[pos++] = '?';
+        continue;
+      } else {
+        bytes[pos++] = (byte) (0xE0 | c >> 12);
+        bytes[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+        bytes[pos++] = (byte) (0x80 | c & 0x3F);
+      }
+      isAscii = false;
+    }
+    return append(pos, isAscii);
+  }
+
+  /**
+   * Appends {@code length} bytes of {@code utf8} starting at
+   * {@code offset}, which must be valid UTF-8, and returns the index.
+   */
+  public int add(byte[] utf8, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > utf8.length - length) {
+      throw new IndexOutOfBoundsException(
+          "Range [" + offset + ", " + offset + " + " + length
+          + ") out of bounds for length " + utf8.length);
+    }
+    ensureBytes(length);
+    int pos = offsets[size];
+    System.arraycopy(utf8, offset, bytes, pos, length);
+    boolean isAscii = true;
+    for (int i = offset; i < offset + length; i++) {
+      if (utf8[i] < 0) {
+        isAscii = false;
+        break;
+      }
+    }
+    return append(pos + length, isAscii);
+  }
+
+  /**
+   * The array holding every string's bytes; string {@code index} is at
+   * {@link #offset}..+{@link #byteLength}. Only valid until the next add.
+   */
+  public byte[] array() {
+    return bytes;
+  }
+
+  public int offset(int index) {
+    checkIndex(index);
+    return offsets[index];
+  }
+
+  public int byteLength(int index) {
+    checkIndex(index);
+    return offsets[index + 1] - offsets[index];
+  }
+
+  public boolean isAscii(int index) {
+    checkIndex(index);
+    return (ascii[index >>> 6] & 1L << index) != 0;
+  }
+
+  /** Like {@link String#length()}: the number of UTF-16 chars. */
+  public int length(int index) {
+    int byteLength = byteLength(index);
+    if (isAscii(index)) {
+      return byteLength;
+    }
+    int from = offsets[index];
+    int length = 0;
+    for (int i = from; i < from + byteLength; i++) {
+      int b = bytes[i] & 0xFF;
+      if (b >= 0xF0) {
+        length += 2;
+      } else if (b < 0x80 || b >= 0xC0) {
+        length++;
+      }
+    }
+    return length;
+  }
+
+  /** A zero-copy view; only valid while this arena is. */
+  public CharSequence view(int index) {
+    checkIndex(index);
+    return new View(index);
+  }
+
+  /** Decodes string {@code index} into a new String. */
+  public String get(int index) {
+    return new String(bytes, offset(index), byteLength(index),
+                      StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Same as {@code get(index).contentEquals(s)}, but compares ASCII strings
+   * in place instead of decoding them.
+   */
+  public boolean contentEquals(int index, CharSequence s) {
+    if (!isAscii(index)) {
+      return get(index).contentEquals(s);
+    }
+    int from = offsets[index];
+    int length = offsets[index + 1] - from;
+    if (s.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (bytes[from + i] != s.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  private int append(int end, boolean isAscii) {
+    int index = size;
+    if (index + 1 == offsets.length) {
+      offsets = Arrays.copyOf(offsets, grow(offsets.length, index + 2));
+      ascii = Arrays.copyOf(ascii, (offsets.length + 63) >>> 6);
+    }
+    offsets[index + 1] = end;
+    if (isAscii) {
+      ascii[index >>> 6] |= 1L << index;
+    } else {
+      ascii[index >>> 6] &= ~(1L << index);
+    }
+    size++;
+    return index;
+  }
+
+  private void ensureBytes(long more) {
+    long needed = offsets[size] + more;
+    if (needed > bytes.length) {
+      if (needed > MAX_CAPACITY) {
+        // Might still fit exactly, but we'd rather not encode twice.
+        throw new OutOfMemoryError(
+            "StringArena can't hold more than " + MAX_CAPACITY + " bytes");
+      }
+      bytes = Arrays.copyOf(bytes, grow(bytes.length, (int) needed));
+    }
+  }
+
+  // Grows by 50% like ArrayList, but at least to what's needed.
+  private static int grow(int capacity, int minCapacity) {
+    long grown = Math.max(16, capacity + (long) (capacity >> 1));
+    return (int) Math.min(MAX_CAPACITY, Math.max(minCapacity, grown));
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(
+          "Index " + index + " out of bounds for size " + size);
+    }
+  }
+
+  private final class View implements CharSequence {
+    private final int index;
+
+    View(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public int length() {
+      return StringArena.this.length(index);
+    }
+
+    @Override
+    public char charAt(int i) {
+      int from = offsets[index];
+      int to = offsets[index + 1];
+      if ((ascii[index >>> 6] & 1L << index) != 0) {
+        if (i < 0 || i >= to - from) {
+          throw new StringIndexOutOfBoundsException(i);
+        }
+        return (char) bytes[from + i];
+      }
+      return decodeCharAt(from, to, i);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return get(index);
+    }
+  }
+
+  // Walks the UTF-8 in bytes[from, to) up to the i-th UTF-16 char.
+  private char decodeCharAt(int from, int to, int i) {
+    if (i < 0) {
+      throw new StringIndexOutOfBoundsException(i);
+    }
+    int chars = 0;
+    int pos = from;
+    while (pos < to) {
+      int b = bytes[pos] & 0xFF;
+      int codePoint;
+      if (b < 0x80) {
+        codePoint = b;
+        pos++;
+      } else if (b < 0xE0) {
+        codePoint = (b & 0x1F) << 6 | bytes[pos + 1] & 0x3F;
+        pos += 2;
+      } else if (b < 0xF0) {
+        codePoint = (b & 0x0F) << 12 | (bytes[pos + 1] & 0x3F) << 6
+                    | bytes[pos + 2] & 0x3F;
+        pos += 3;
+      } else {
+        codePoint = (b & 0x07) << 18 | (bytes[pos + 1] & 0x3F) << 12
+                    | (bytes[pos + 2] & 0x3F) << 6 | bytes[pos + 3] & 0x3F;
+        pos += 4;
+        if (chars == i) {
+          return Character.highSurrogate(codePoint);
+        } else if (chars + 1 == i) {
+          return Character.lowSurrogate(codePoint);
+        }
+        chars += 2;
+        continue;
+      }
+      if (chars == i) {
+        return (char) codePoint;
+      }
+      chars++;
+    }
+    throw new StringIndexOutOfBoundsException(i);
+  }
+}
@@ -0,0 +1,150 @@
+package io.markovic.jmh.collect;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, thread-safe pool of canonical {@code String}s: {@link #dedup}
+ * returns an equal string that's already in the pool if there is one, so
+ * that repeated keys share one instance instead of one each.
+ *
+ * <p>Unlike {@code String.intern()}, it's on the Java heap, has a fixed
+ * size and can be dropped with its owner. Unlike
+ * {@code -XX:+UseStringDeduplication}, it dedups whole {@code String}s
+ * (not just their backing arrays) as soon as they're created, not after
+ * they've survived a few GCs, and works with any collector.
+ *
+ * <p>It's a cache, not a set: the table is split into stripes, each an
+ * open-addressing table of {@code capacity / stripes} slots. A string is
+ * looked for in the 8 slots from its hash; when those are all taken by
+ * other strings, one of them is replaced. An evicted string stays valid,
+ * but a later equal string gets a new canonical instance. Lookups don't
+ * lock; adding a string locks its stripe.
+ *
+ * <p>{@link #strong} pools keep their strings alive until they're evicted.
+ * {@link #weak} pools hold them through {@code WeakReference}s, so a
+ * string the application no longer uses can be collected, at the cost of
+ * a 32-byte reference object per entry and reference processing in every
+ * GC.
+ */
+public final class StringPool {
+  private static final int PROBES = 8;
+  private static final int MAX_STRIPES = 64;
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private final Stripe[] stripes;
+  // log2(stripes.length)
+  private final int stripeBits;
+  private final boolean weak;
+
+  private StringPool(int capacity, boolean weak) {
+    if (capacity < PROBES || capacity > MAX_CAPACITY) {
+      throw new IllegalArgumentException(
+          "capacity must be in [" + PROBES + ", " + MAX_CAPACITY
+          + "], got: " + capacity);
+    }
+    // At least PROBES slots per stripe, so that a probe never wraps
+    // around onto itself.
+    int slots = Integer.highestOneBit(capacity - 1) << 1;
+    int stripeCount = Math.min(MAX_STRIPES, slots / PROBES);
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe(slots / stripeCount);
+    }
+    this.stripeBits = Integer.numberOfTrailingZeros(stripeCount);
+    this.weak = weak;
+  }
+
+  /** A pool of {@code capacity} (rounded up to a power of two) strings. */
+  public static StringPool strong(int capacity) {
+    return new StringPool(capacity, false);
+  }
+
+  /** Like {@link #strong}, but doesn't keep its strings alive. */
+  public static StringPool weak(int capacity) {
+    return new StringPool(capacity, true);
+  }
+
+  /** The number of slots, the most strings the pool can hold. */
+  public int capacity() {
+    return stripes.length * stripes[0].table.length();
+  }
+
+  /**
+   * The pooled string equal to {@code s}, or {@code s} itself (now
+   * pooled) if there's none.
+   */
+  public String dedup(String s) {
+    int h = s.hashCode() * 0x9E3779B9;
+    // The top bits of the (Fibonacci) hash pick the stripe, the bits
+    // right below them the slot within it.
+    Stripe stripe = stripes[(int) ((h & 0xFFFFFFFFL) >>> (32 - stripeBits))];
+    h <<= stripeBits;
+    String pooled = stripe.find(s, h);
+    return pooled != null ? pooled : stripe.add(s, h);
+  }
+
+  // Entries are Strings or WeakReference<String>s. A slot is only ever
+  // null before it's first filled, and it's filled with the first free
+  // slot of its probe, so a probe can stop at the first null.
+  private final class Stripe {
+    final AtomicReferenceArray<Object> table;
+    final int mask;
+    final int shift;
+    int evictions;
+
+    Stripe(int slots) {
+      this.table = new AtomicReferenceArray<>(slots);
+      this.mask = slots - 1;
+      this.shift = Integer.numberOfLeadingZeros(slots) + 1;
+    }
+
+    String find(String s, int h) {
+      int home = h >>> shift;
+      for (int i = 0; i < PROBES; i++) {
+        Object entry = table.get((home + i) & mask);
+        if (entry == null) {
+          return null;
+        }
+        String candidate = deref(entry);
+        if (s.equals(candidate)) {
+          return candidate;
+        }
+      }
+      return null;
+    }
+
+    synchronized String add(String s, int h) {
+      // Another thread may have added it since find().
+      int home = h >>> shift;
+      int free = -1;
+      for (int i = 0; i < PROBES; i++) {
+        int slot = (home + i) & mask;
+        Object entry = table.get(slot);
+        String candidate = entry == null ? null : deref(entry);
+        if (candidate == null) {
+          if (free < 0) {
+            free = slot;
+          }
+          if (entry == null) {
+            break;
+          }
+        } else if (s.equals(candidate)) {
+          return candidate;
+        }
+      }
+      if (free < 0) {
+        // Rotate through the probe so that a hot string isn't always the
+        // one evicted.
+        free = (home + (evictions++ & (PROBES - 1))) & mask;
+      }
+      table.set(free, weak ? new WeakReference<>(s) : s);
+      return s;
+    }
+
+    @SuppressWarnings("unchecked")
+    private String deref(Object entry) {
+      return weak ? ((WeakReference<String>) entry).get() : (String) entry;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package io.markovic.jmh.experiments;
+
+import java.util.Collection;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+
+// Turns "this should show ≈ 0 B/op under -prof gc" into something a main()
+// can actually fail on. Only works on results from runs with GCProfiler
+// enabled.
+final class AllocationCheck {
+  // Anything above this is a real allocation; an allocation-free benchmark
+  // shows up as ≈ 10⁻⁵ B/op because of JMH's own infrastructure (a bit more
+  // for slow benchmarks, where it's amortized over fewer ops).
+  private static final double MAX_BYTES_PER_OP = 0.5;
+
+  private AllocationCheck() {}
+
+  // Throws if any benchmark whose name matches `benchmarkRegex` allocated,
+  // and, so that the check can't pass by not checking anything, if none
+  // matched or a match has no gc.alloc.rate.norm.
+  static void assertNoAllocation(Collection<RunResult> results,
+                                 String benchmarkRegex) {
+    Pattern pattern = Pattern.compile(benchmarkRegex);
+    int matched = 0;
+    for (RunResult result : results) {
+      String benchmark = result.getParams().getBenchmark();
+      if (!pattern.matcher(benchmark).find()) {
+        continue;
+      }
+      matched++;
+      double bytesPerOp = bytesPerOp(result);
+      if (Double.isNaN(bytesPerOp)) {
+        throw new IllegalStateException(
+            benchmark + " has no gc.alloc.rate.norm, was GCProfiler on?");
+      }
+      if (bytesPerOp > MAX_BYTES_PER_OP) {
+        throw new IllegalStateException(String.format(
+            "%s allocates %.3f B/op, expected none!", benchmark, bytesPerOp));
+      }
+    }
+    if (matched == 0) {
+      throw new IllegalStateException(
+          "No results for benchmarks matching " + benchmarkRegex);
+    }
+  }
+
+  // The gc.alloc.rate.norm of `result`, or NaN if it has none.
+  static double bytesPerOp(RunResult result) {
+    for (Result<?> secondary : result.getSecondaryResults().values()) {
+      if (secondary.getLabel().endsWith("gc.alloc.rate.norm")) {
+        return secondary.getScore();
+      }
+    }
+    return Double.NaN;
+  }
+}
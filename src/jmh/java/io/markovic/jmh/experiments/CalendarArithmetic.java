@@ -0,0 +1,279 @@
+package io.markovic.jmh.experiments;
+
+import java.text.ParseException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import net.time4j.CalendarUnit;
+import net.time4j.Duration;
+import net.time4j.Moment;
+import net.time4j.PlainDate;
+import net.time4j.PlainTimestamp;
+import net.time4j.Platform;
+import net.time4j.TemporalType;
+import net.time4j.engine.TimeMetric;
+import net.time4j.format.TemporalFormatter;
+import net.time4j.tz.Timezone;
+import net.time4j.tz.ZonalOffset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Date arithmetic in Time4J (PlainDate/Moment) vs java.time
+// (LocalDate/ZonedDateTime), one java*/time4j* pair per operation we do a
+// lot of: adding days and months (month-end adds clamp to the last day of
+// the month in both), rolling to the next business day, days and periods
+// between two dates, converting between instants and zoned local time, and
+// parsing.
+//
+// Every call works on the next of 1024 pre-generated random dates (or
+// instants) between 1970 and 2070, so neither engine gets to cache or
+// constant-fold a single value. The zone conversions are also run for a
+// zone without transitions (UTC) and two with DST.
+//
+// Time4J's pattern-based ChronoFormatter lives in time4j-i18n, which we
+// don't depend on, so time4j-core's own Platform.PATTERN formatters (which
+// are built on java.text.SimpleDateFormat) stand in for it.
+//
+// Run main() (or pass `-prof gc`) to see allocation next to throughput.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+@Fork(2)
+public class CalendarArithmetic {
+  private static final int VALUES = 1024;
+  private static final TimeMetric<CalendarUnit, Duration<CalendarUnit>>
+      YEARS_MONTHS_DAYS = Duration.inYearsMonthsDays();
+
+  LocalDate[] localDates = new LocalDate[VALUES];
+  PlainDate[] plainDates = new PlainDate[VALUES];
+  String[] isoDates = new String[VALUES];
+  Instant[] instants = new Instant[VALUES];
+  Moment[] moments = new Moment[VALUES];
+  String[] isoInstants = new String[VALUES];
+  TemporalFormatter<PlainDate> dateFormatter;
+  TemporalFormatter<Moment> momentFormatter;
+  int next;
+
+  @State(Scope.Thread)
+  public static class Zone {
+    @Param({"UTC", "Europe/Berlin", "America/New_York"})
+    public String zone;
+
+    ZoneId zoneId;
+    Timezone timezone;
+    LocalDateTime[] localDateTimes = new LocalDateTime[VALUES];
+    PlainTimestamp[] plainTimestamps = new PlainTimestamp[VALUES];
+
+    @Setup
+    public void setup(CalendarArithmetic dates) {
+      zoneId = ZoneId.of(zone);
+      timezone = Timezone.of(zone);
+      for (int i = 0; i < VALUES; i++) {
+        localDateTimes[i] =
+            LocalDateTime.ofInstant(dates.instants[i], zoneId);
+        plainTimestamps[i] =
+            TemporalType.LOCAL_DATE_TIME.translate(localDateTimes[i]);
+      }
+    }
+  }
+
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    long min = Instant.parse("1970-01-01T00:00:00Z").getEpochSecond();
+    long max = Instant.parse("2070-01-01T00:00:00Z").getEpochSecond();
+    for (int i = 0; i < VALUES; i++) {
+      instants[i] = Instant.ofEpochSecond(
+          random.nextLong(min, max), random.nextInt(1, 1000) * 1_000_000);
+      moments[i] = Moment.from(instants[i]);
+      isoInstants[i] = instants[i].toString();
+      localDates[i] = LocalDate.ofInstant(instants[i], ZoneId.of("UTC"));
+      plainDates[i] = TemporalType.LOCAL_DATE.translate(localDates[i]);
+      isoDates[i] = localDates[i].toString();
+    }
+    dateFormatter =
+        PlainDate.formatter("yyyy-MM-dd", Platform.PATTERN, Locale.ROOT);
+    momentFormatter = Moment.formatter(
+        "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Platform.PATTERN, Locale.ROOT,
+        ZonalOffset.UTC);
+  }
+
+  private int next() {
+    return next++ & (VALUES - 1);
+  }
+
+  @Benchmark
+  public LocalDate javaPlusDays() {
+    return localDates[next()].plusDays(45);
+  }
+
+  @Benchmark
+  public PlainDate time4jPlusDays() {
+    return plainDates[next()].plus(45, CalendarUnit.DAYS);
+  }
+
+  // Random days of the month, so roughly 1 in 10 of these is a month-end
+  // add that has to clamp (Jan 31 + 1 month = Feb 28).
+  @Benchmark
+  public LocalDate javaPlusMonths() {
+    return localDates[next()].plusMonths(1);
+  }
+
+  @Benchmark
+  public PlainDate time4jPlusMonths() {
+    return plainDates[next()].plus(1, CalendarUnit.MONTHS);
+  }
+
+  @Benchmark
+  public LocalDate javaMinusMonths() {
+    return localDates[next()].minusMonths(13);
+  }
+
+  @Benchmark
+  public PlainDate time4jMinusMonths() {
+    return plainDates[next()].minus(13, CalendarUnit.MONTHS);
+  }
+
+  // The "following" business-day convention (no holidays): the next day,
+  // or the Monday after if that's on a weekend.
+  @Benchmark
+  public LocalDate javaNextBusinessDay() {
+    LocalDate date = localDates[next()].plusDays(1);
+    DayOfWeek dayOfWeek = date.getDayOfWeek();
+    if (dayOfWeek == DayOfWeek.SATURDAY) {
+      return date.plusDays(2);
+    } else if (dayOfWeek == DayOfWeek.SUNDAY) {
+      return date.plusDays(1);
+    }
+    return date;
+  }
+
+  @Benchmark
+  public PlainDate time4jNextBusinessDay() {
+    PlainDate date = plainDates[next()].plus(1, CalendarUnit.DAYS);
+    switch (date.getDayOfWeek()) {
+      case SATURDAY:
+        return date.plus(2, CalendarUnit.DAYS);
+      case SUNDAY:
+        return date.plus(1, CalendarUnit.DAYS);
+      default:
+        return date;
+    }
+  }
+
+  @Benchmark
+  public long javaDaysBetween() {
+    int i = next();
+    return ChronoUnit.DAYS.between(localDates[i],
+                                   localDates[(i + 1) & (VALUES - 1)]);
+  }
+
+  @Benchmark
+  public long time4jDaysBetween() {
+    int i = next();
+    return CalendarUnit.DAYS.between(plainDates[i],
+                                     plainDates[(i + 1) & (VALUES - 1)]);
+  }
+
+  @Benchmark
+  public Period javaPeriodBetween() {
+    int i = next();
+    return Period.between(localDates[i], localDates[(i + 1) & (VALUES - 1)]);
+  }
+
+  @Benchmark
+  public Duration<CalendarUnit> time4jPeriodBetween() {
+    int i = next();
+    return YEARS_MONTHS_DAYS.between(plainDates[i],
+                                     plainDates[(i + 1) & (VALUES - 1)]);
+  }
+
+  // Instant to local time in `zone`, e.g. for display or end-of-day cutoffs.
+  @Benchmark
+  public LocalDateTime javaToZone(Zone zone) {
+    return ZonedDateTime.ofInstant(instants[next()], zone.zoneId)
+                        .toLocalDateTime();
+  }
+
+  @Benchmark
+  public PlainTimestamp time4jToZone(Zone zone) {
+    return moments[next()].toZonalTimestamp(zone.timezone.getID());
+  }
+
+  // And back, resolving DST gaps and overlaps the default way in both.
+  @Benchmark
+  public Instant javaFromZone(Zone zone) {
+    return zone.localDateTimes[next()].atZone(zone.zoneId).toInstant();
+  }
+
+  @Benchmark
+  public Moment time4jFromZone(Zone zone) {
+    return zone.plainTimestamps[next()].in(zone.timezone);
+  }
+
+  @Benchmark
+  public LocalDate javaParseDate() {
+    return LocalDate.parse(isoDates[next()]);
+  }
+
+  @Benchmark
+  public PlainDate time4jParseDate() throws ParseException {
+    return dateFormatter.parse(isoDates[next()]);
+  }
+
+  // Instants with non-zero millis (see setup()), since Instant.toString()
+  // drops a zero fraction, which the fixed-width Time4J pattern can't parse.
+  @Benchmark
+  public Instant javaParseInstant() {
+    return Instant.parse(isoInstants[next()]);
+  }
+
+  @Benchmark
+  public Moment time4jParseMoment() throws ParseException {
+    return momentFormatter.parse(isoInstants[next()]);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(CalendarArithmetic.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  // What to expect (when run with `-prof gc`):
+  //
+  // Both engines return immutable values, so every benchmark allocates at
+  // least its result; the interesting differences are in what they
+  // allocate on the way. Plain day/month arithmetic should be close, with
+  // java.time ahead where Time4J goes through its generic unit machinery.
+  // The zone conversions allocate more in Time4J (the DST zones most of
+  // all: resolving a local timestamp builds intermediate objects java.time
+  // doesn't), and parsing through SimpleDateFormat is several times slower
+  // and heavier than java.time's parsers for both dates and instants.
+}
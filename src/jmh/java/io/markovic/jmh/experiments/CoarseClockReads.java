@@ -0,0 +1,113 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.clock.CoarseClock;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Compares CoarseClock reads against the two SystemNanosVsMillis methods.
+//
+// The read benchmarks are meant to be run at several thread counts to see
+// how they scale; main() below does that sweep with ThreadSweep. From the
+// command line, use `-t <n>`.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@Fork(2)
+public class CoarseClockReads {
+  @Param({"1000", "100"})
+  public long resolutionMicros;
+
+  // One clock (and ticker thread) shared by all the reader threads, as it
+  // would be in an app.
+  CoarseClock clock;
+
+  @Setup
+  public void setup() {
+    clock = CoarseClock.start(resolutionMicros, TimeUnit.MICROSECONDS);
+  }
+
+  @TearDown
+  public void teardown() {
+    clock.close();
+  }
+
+  // Same as SystemNanosVsMillis; these are the baselines.
+
+  @Benchmark
+  public long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  @Benchmark
+  public long nanoTime() {
+    return System.nanoTime();
+  }
+
+  @Benchmark
+  public long coarseCurrentTimeMillis() {
+    return clock.currentTimeMillis();
+  }
+
+  @Benchmark
+  public long coarseNanosOpaque() {
+    return clock.nanos();
+  }
+
+  @Benchmark
+  public long coarseNanosPlain() {
+    return clock.nanosPlain();
+  }
+
+  // Spins until the ticker publishes a new value. Each invocation starts
+  // right after the previous one saw a tick, so SampleTime gives the
+  // distribution of intervals between ticks, i.e. the WORST-CASE staleness
+  // of a read (a read at a random time is on average half that stale).
+  // Expect the p50 to be the resolution plus the ticker's wake-up overshoot
+  // and the tail to show how often the ticker gets descheduled.
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long staleness() {
+    long start = clock.nanos();
+    long now;
+    while ((now = clock.nanos()) == start) {
+      Thread.onSpinWait();
+    }
+    return now;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(CoarseClockReads.class.getSimpleName())
+        .exclude("staleness")
+        .build();
+
+    ThreadSweep.run(opt);
+  }
+
+  // What to expect:
+  //
+  // nanoTime and currentTimeMillis cost ~20 ns (see SystemNanosVsMillis)
+  // and go through the vDSO on every call. The coarse* reads should be a
+  // ~1 ns load that scales perfectly with reader threads since the cache
+  // line is only written once per tick. coarseNanosPlain vs
+  // coarseNanosOpaque shows whether opaque costs anything on this CPU (on
+  // x86 it shouldn't). The price is staleness, which is what the staleness
+  // benchmark shows.
+}
@@ -0,0 +1,1717 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.clock.Nanos;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// DurationOverhead, generalized: instead of hand-picking a stack depth of 5
+// and 9, sweep it from 1 to 32 to map out exactly where escape analysis
+// gives up on scalarizing a Duration. The same chains are run with a plain
+// long of io.markovic.jmh.clock.Nanos, which should never allocate.
+//
+// With inline=false, every method in the chain is marked DONT_INLINE. EA in
+// HotSpot only works within a single compilation unit, so the Duration
+// escapes into the first call and must be allocated at every depth; that's
+// the control.
+//
+// The chains below are mechanical (level N calls level N-1), so they and
+// the `depth` @Param are written by DurationCallDepthGenerator; change the
+// templates there and rerun it (see its comment) rather than editing them
+// here. Each start* method creates the value itself so the dispatch switch
+// in the benchmark methods never sees it.
+//
+// You MUST run this with `-prof GC` on the command line to see GC
+// statistics; without those, the results are useless (we don't care about
+// time in these benchmarks, only GC utilization).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+@Fork(2)
+public class DurationCallDepth {
+  @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13",
+          "14", "15", "16", "17", "18", "19", "20", "21", "22", "23", "24",
+          "25", "26", "27", "28", "29", "30", "31", "32"})
+  public int depth;
+
+  @Param({"true", "false"})
+  public boolean inline;
+
+  private static long getMillis() {
+    return ThreadLocalRandom.current().nextLong(1, 500);
+  }
+
+  @Benchmark
+  public void duration(Blackhole blackhole) {
+    long millis = getMillis();
+    if (inline) {
+      startDuration(depth, millis, blackhole);
+    } else {
+      startDurationNoInline(depth, millis, blackhole);
+    }
+  }
+
+  @Benchmark
+  public void nanos(Blackhole blackhole) {
+    long millis = getMillis();
+    if (inline) {
+      startNanos(depth, millis, blackhole);
+    } else {
+      startNanosNoInline(depth, millis, blackhole);
+    }
+  }
+
+  // ==================== Duration chain ====================
+
+  private static void startDuration(int depth, long millis,
+                                    Blackhole blackhole) {
+    switch (depth) {
+      case 1:
+        startDuration1(millis, blackhole);
+        return;
+      case 2:
+        startDuration2(millis, blackhole);
+        return;
+      case 3:
+        startDuration3(millis, blackhole);
+        return;
+      case 4:
+        startDuration4(millis, blackhole);
+        return;
+      case 5:
+        startDuration5(millis, blackhole);
+        return;
+      case 6:
+        startDuration6(millis, blackhole);
+        return;
+      case 7:
+        startDuration7(millis, blackhole);
+        return;
+      case 8:
+        startDuration8(millis, blackhole);
+        return;
+      case 9:
+        startDuration9(millis, blackhole);
+        return;
+      case 10:
+        startDuration10(millis, blackhole);
+        return;
+      case 11:
+        startDuration11(millis, blackhole);
+        return;
+      case 12:
+        startDuration12(millis, blackhole);
+        return;
+      case 13:
+        startDuration13(millis, blackhole);
+        return;
+      case 14:
+        startDuration14(millis, blackhole);
+        return;
+      case 15:
+        startDuration15(millis, blackhole);
+        return;
+      case 16:
+        startDuration16(millis, blackhole);
+        return;
+      case 17:
+        startDuration17(millis, blackhole);
+        return;
+      case 18:
+        startDuration18(millis, blackhole);
+        return;
+      case 19:
+        startDuration19(millis, blackhole);
+        return;
+      case 20:
+        startDuration20(millis, blackhole);
+        return;
+      case 21:
+        startDuration21(millis, blackhole);
+        return;
+      case 22:
+        startDuration22(millis, blackhole);
+        return;
+      case 23:
+        startDuration23(millis, blackhole);
+        return;
+      case 24:
+        startDuration24(millis, blackhole);
+        return;
+      case 25:
+        startDuration25(millis, blackhole);
+        return;
+      case 26:
+        startDuration26(millis, blackhole);
+        return;
+      case 27:
+        startDuration27(millis, blackhole);
+        return;
+      case 28:
+        startDuration28(millis, blackhole);
+        return;
+      case 29:
+        startDuration29(millis, blackhole);
+        return;
+      case 30:
+        startDuration30(millis, blackhole);
+        return;
+      case 31:
+        startDuration31(millis, blackhole);
+        return;
+      case 32:
+        startDuration32(millis, blackhole);
+        return;
+      default:
+        throw new IllegalArgumentException("Unsupported depth: " + depth);
+    }
+  }
+
+  private static void startDuration1(long millis, Blackhole blackhole) {
+    useDuration1(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration2(long millis, Blackhole blackhole) {
+    useDuration2(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration3(long millis, Blackhole blackhole) {
+    useDuration3(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration4(long millis, Blackhole blackhole) {
+    useDuration4(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration5(long millis, Blackhole blackhole) {
+    useDuration5(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration6(long millis, Blackhole blackhole) {
+    useDuration6(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration7(long millis, Blackhole blackhole) {
+    useDuration7(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration8(long millis, Blackhole blackhole) {
+    useDuration8(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration9(long millis, Blackhole blackhole) {
+    useDuration9(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration10(long millis, Blackhole blackhole) {
+    useDuration10(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration11(long millis, Blackhole blackhole) {
+    useDuration11(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration12(long millis, Blackhole blackhole) {
+    useDuration12(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration13(long millis, Blackhole blackhole) {
+    useDuration13(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration14(long millis, Blackhole blackhole) {
+    useDuration14(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration15(long millis, Blackhole blackhole) {
+    useDuration15(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration16(long millis, Blackhole blackhole) {
+    useDuration16(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration17(long millis, Blackhole blackhole) {
+    useDuration17(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration18(long millis, Blackhole blackhole) {
+    useDuration18(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration19(long millis, Blackhole blackhole) {
+    useDuration19(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration20(long millis, Blackhole blackhole) {
+    useDuration20(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration21(long millis, Blackhole blackhole) {
+    useDuration21(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration22(long millis, Blackhole blackhole) {
+    useDuration22(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration23(long millis, Blackhole blackhole) {
+    useDuration23(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration24(long millis, Blackhole blackhole) {
+    useDuration24(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration25(long millis, Blackhole blackhole) {
+    useDuration25(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration26(long millis, Blackhole blackhole) {
+    useDuration26(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration27(long millis, Blackhole blackhole) {
+    useDuration27(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration28(long millis, Blackhole blackhole) {
+    useDuration28(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration29(long millis, Blackhole blackhole) {
+    useDuration29(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration30(long millis, Blackhole blackhole) {
+    useDuration30(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration31(long millis, Blackhole blackhole) {
+    useDuration31(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void startDuration32(long millis, Blackhole blackhole) {
+    useDuration32(Duration.ofMillis(millis), blackhole);
+  }
+
+  private static void useDuration1(Duration duration, Blackhole blackhole) {
+    blackhole.consume(duration.toMillis());
+  }
+
+  private static void useDuration2(Duration duration, Blackhole blackhole) {
+    useDuration1(duration, blackhole);
+  }
+
+  private static void useDuration3(Duration duration, Blackhole blackhole) {
+    useDuration2(duration, blackhole);
+  }
+
+  private static void useDuration4(Duration duration, Blackhole blackhole) {
+    useDuration3(duration, blackhole);
+  }
+
+  private static void useDuration5(Duration duration, Blackhole blackhole) {
+    useDuration4(duration, blackhole);
+  }
+
+  private static void useDuration6(Duration duration, Blackhole blackhole) {
+    useDuration5(duration, blackhole);
+  }
+
+  private static void useDuration7(Duration duration, Blackhole blackhole) {
+    useDuration6(duration, blackhole);
+  }
+
+  private static void useDuration8(Duration duration, Blackhole blackhole) {
+    useDuration7(duration, blackhole);
+  }
+
+  private static void useDuration9(Duration duration, Blackhole blackhole) {
+    useDuration8(duration, blackhole);
+  }
+
+  private static void useDuration10(Duration duration, Blackhole blackhole) {
+    useDuration9(duration, blackhole);
+  }
+
+  private static void useDuration11(Duration duration, Blackhole blackhole) {
+    useDuration10(duration, blackhole);
+  }
+
+  private static void useDuration12(Duration duration, Blackhole blackhole) {
+    useDuration11(duration, blackhole);
+  }
+
+  private static void useDuration13(Duration duration, Blackhole blackhole) {
+    useDuration12(duration, blackhole);
+  }
+
+  private static void useDuration14(Duration duration, Blackhole blackhole) {
+    useDuration13(duration, blackhole);
+  }
+
+  private static void useDuration15(Duration duration, Blackhole blackhole) {
+    useDuration14(duration, blackhole);
+  }
+
+  private static void useDuration16(Duration duration, Blackhole blackhole) {
+    useDuration15(duration, blackhole);
+  }
+
+  private static void useDuration17(Duration duration, Blackhole blackhole) {
+    useDuration16(duration, blackhole);
+  }
+
+  private static void useDuration18(Duration duration, Blackhole blackhole) {
+    useDuration17(duration, blackhole);
+  }
+
+  private static void useDuration19(Duration duration, Blackhole blackhole) {
+    useDuration18(duration, blackhole);
+  }
+
+  private static void useDuration20(Duration duration, Blackhole blackhole) {
+    useDuration19(duration, blackhole);
+  }
+
+  private static void useDuration21(Duration duration, Blackhole blackhole) {
+    useDuration20(duration, blackhole);
+  }
+
+  private static void useDuration22(Duration duration, Blackhole blackhole) {
+    useDuration21(duration, blackhole);
+  }
+
+  private static void useDuration23(Duration duration, Blackhole blackhole) {
+    useDuration22(duration, blackhole);
+  }
+
+  private static void useDuration24(Duration duration, Blackhole blackhole) {
+    useDuration23(duration, blackhole);
+  }
+
+  private static void useDuration25(Duration duration, Blackhole blackhole) {
+    useDuration24(duration, blackhole);
+  }
+
+  private static void useDuration26(Duration duration, Blackhole blackhole) {
+    useDuration25(duration, blackhole);
+  }
+
+  private static void useDuration27(Duration duration, Blackhole blackhole) {
+    useDuration26(duration, blackhole);
+  }
+
+  private static void useDuration28(Duration duration, Blackhole blackhole) {
+    useDuration27(duration, blackhole);
+  }
+
+  private static void useDuration29(Duration duration, Blackhole blackhole) {
+    useDuration28(duration, blackhole);
+  }
+
+  private static void useDuration30(Duration duration, Blackhole blackhole) {
+    useDuration29(duration, blackhole);
+  }
+
+  private static void useDuration31(Duration duration, Blackhole blackhole) {
+    useDuration30(duration, blackhole);
+  }
+
+  private static void useDuration32(Duration duration, Blackhole blackhole) {
+    useDuration31(duration, blackhole);
+  }
+
+  // ==================== DurationNoInline chain ====================
+
+  private static void startDurationNoInline(int depth, long millis,
+                                            Blackhole blackhole) {
+    switch (depth) {
+      case 1:
+        startDurationNoInline1(millis, blackhole);
+        return;
+      case 2:
+        startDurationNoInline2(millis, blackhole);
+        return;
+      case 3:
+        startDurationNoInline3(millis, blackhole);
+        return;
+      case 4:
+        startDurationNoInline4(millis, blackhole);
+        return;
+      case 5:
+        startDurationNoInline5(millis, blackhole);
+        return;
+      case 6:
+        startDurationNoInline6(millis, blackhole);
+        return;
+      case 7:
+        startDurationNoInline7(millis, blackhole);
+        return;
+      case 8:
+        startDurationNoInline8(millis, blackhole);
+        return;
+      case 9:
+        startDurationNoInline9(millis, blackhole);
+        return;
+      case 10:
+        startDurationNoInline10(millis, blackhole);
+        return;
+      case 11:
+        startDurationNoInline11(millis, blackhole);
+        return;
+      case 12:
+        startDurationNoInline12(millis, blackhole);
+        return;
+      case 13:
+        startDurationNoInline13(millis, blackhole);
+        return;
+      case 14:
+        startDurationNoInline14(millis, blackhole);
+        return;
+      case 15:
+        startDurationNoInline15(millis, blackhole);
+        return;
+      case 16:
+        startDurationNoInline16(millis, blackhole);
+        return;
+      case 17:
+        startDurationNoInline17(millis, blackhole);
+        return;
+      case 18:
+        startDurationNoInline18(millis, blackhole);
+        return;
+      case 19:
+        startDurationNoInline19(millis, blackhole);
+        return;
+      case 20:
+        startDurationNoInline20(millis, blackhole);
+        return;
+      case 21:
+        startDurationNoInline21(millis, blackhole);
+        return;
+      case 22:
+        startDurationNoInline22(millis, blackhole);
+        return;
+      case 23:
+        startDurationNoInline23(millis, blackhole);
+        return;
+      case 24:
+        startDurationNoInline24(millis, blackhole);
+        return;
+      case 25:
+        startDurationNoInline25(millis, blackhole);
+        return;
+      case 26:
+        startDurationNoInline26(millis, blackhole);
+        return;
+      case 27:
+        startDurationNoInline27(millis, blackhole);
+        return;
+      case 28:
+        startDurationNoInline28(millis, blackhole);
+        return;
+      case 29:
+        startDurationNoInline29(millis, blackhole);
+        return;
+      case 30:
+        startDurationNoInline30(millis, blackhole);
+        return;
+      case 31:
+        startDurationNoInline31(millis, blackhole);
+        return;
+      case 32:
+        startDurationNoInline32(millis, blackhole);
+        return;
+      default:
+        throw new IllegalArgumentException("Unsupported depth: " + depth);
+    }
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline1(long millis, Blackhole blackhole) {
+    useDurationNoInline1(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline2(long millis, Blackhole blackhole) {
+    useDurationNoInline2(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline3(long millis, Blackhole blackhole) {
+    useDurationNoInline3(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline4(long millis, Blackhole blackhole) {
+    useDurationNoInline4(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline5(long millis, Blackhole blackhole) {
+    useDurationNoInline5(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline6(long millis, Blackhole blackhole) {
+    useDurationNoInline6(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline7(long millis, Blackhole blackhole) {
+    useDurationNoInline7(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline8(long millis, Blackhole blackhole) {
+    useDurationNoInline8(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline9(long millis, Blackhole blackhole) {
+    useDurationNoInline9(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline10(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline10(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline11(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline11(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline12(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline12(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline13(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline13(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline14(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline14(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline15(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline15(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline16(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline16(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline17(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline17(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline18(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline18(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline19(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline19(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline20(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline20(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline21(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline21(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline22(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline22(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline23(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline23(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline24(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline24(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline25(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline25(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline26(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline26(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline27(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline27(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline28(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline28(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline29(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline29(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline30(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline30(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline31(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline31(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startDurationNoInline32(long millis,
+                                              Blackhole blackhole) {
+    useDurationNoInline32(Duration.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline1(Duration duration,
+                                           Blackhole blackhole) {
+    blackhole.consume(duration.toMillis());
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline2(Duration duration,
+                                           Blackhole blackhole) {
+    useDurationNoInline1(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline3(Duration duration,
+                                           Blackhole blackhole) {
+    useDurationNoInline2(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline4(Duration duration,
+                                           Blackhole blackhole) {
+    useDurationNoInline3(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline5(Duration duration,
+                                           Blackhole blackhole) {
+    useDurationNoInline4(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline6(Duration duration,
+                                           Blackhole blackhole) {
+    useDurationNoInline5(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline7(Duration duration,
+                                           Blackhole blackhole) {
+    useDurationNoInline6(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline8(Duration duration,
+                                           Blackhole blackhole) {
+    useDurationNoInline7(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline9(Duration duration,
+                                           Blackhole blackhole) {
+    useDurationNoInline8(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline10(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline9(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline11(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline10(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline12(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline11(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline13(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline12(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline14(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline13(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline15(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline14(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline16(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline15(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline17(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline16(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline18(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline17(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline19(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline18(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline20(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline19(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline21(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline20(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline22(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline21(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline23(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline22(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline24(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline23(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline25(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline24(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline26(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline25(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline27(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline26(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline28(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline27(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline29(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline28(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline30(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline29(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline31(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline30(duration, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useDurationNoInline32(Duration duration,
+                                            Blackhole blackhole) {
+    useDurationNoInline31(duration, blackhole);
+  }
+
+  // ==================== Nanos chain ====================
+
+  private static void startNanos(int depth, long millis, Blackhole blackhole) {
+    switch (depth) {
+      case 1:
+        startNanos1(millis, blackhole);
+        return;
+      case 2:
+        startNanos2(millis, blackhole);
+        return;
+      case 3:
+        startNanos3(millis, blackhole);
+        return;
+      case 4:
+        startNanos4(millis, blackhole);
+        return;
+      case 5:
+        startNanos5(millis, blackhole);
+        return;
+      case 6:
+        startNanos6(millis, blackhole);
+        return;
+      case 7:
+        startNanos7(millis, blackhole);
+        return;
+      case 8:
+        startNanos8(millis, blackhole);
+        return;
+      case 9:
+        startNanos9(millis, blackhole);
+        return;
+      case 10:
+        startNanos10(millis, blackhole);
+        return;
+      case 11:
+        startNanos11(millis, blackhole);
+        return;
+      case 12:
+        startNanos12(millis, blackhole);
+        return;
+      case 13:
+        startNanos13(millis, blackhole);
+        return;
+      case 14:
+        startNanos14(millis, blackhole);
+        return;
+      case 15:
+        startNanos15(millis, blackhole);
+        return;
+      case 16:
+        startNanos16(millis, blackhole);
+        return;
+      case 17:
+        startNanos17(millis, blackhole);
+        return;
+      case 18:
+        startNanos18(millis, blackhole);
+        return;
+      case 19:
+        startNanos19(millis, blackhole);
+        return;
+      case 20:
+        startNanos20(millis, blackhole);
+        return;
+      case 21:
+        startNanos21(millis, blackhole);
+        return;
+      case 22:
+        startNanos22(millis, blackhole);
+        return;
+      case 23:
+        startNanos23(millis, blackhole);
+        return;
+      case 24:
+        startNanos24(millis, blackhole);
+        return;
+      case 25:
+        startNanos25(millis, blackhole);
+        return;
+      case 26:
+        startNanos26(millis, blackhole);
+        return;
+      case 27:
+        startNanos27(millis, blackhole);
+        return;
+      case 28:
+        startNanos28(millis, blackhole);
+        return;
+      case 29:
+        startNanos29(millis, blackhole);
+        return;
+      case 30:
+        startNanos30(millis, blackhole);
+        return;
+      case 31:
+        startNanos31(millis, blackhole);
+        return;
+      case 32:
+        startNanos32(millis, blackhole);
+        return;
+      default:
+        throw new IllegalArgumentException("Unsupported depth: " + depth);
+    }
+  }
+
+  private static void startNanos1(long millis, Blackhole blackhole) {
+    useNanos1(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos2(long millis, Blackhole blackhole) {
+    useNanos2(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos3(long millis, Blackhole blackhole) {
+    useNanos3(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos4(long millis, Blackhole blackhole) {
+    useNanos4(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos5(long millis, Blackhole blackhole) {
+    useNanos5(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos6(long millis, Blackhole blackhole) {
+    useNanos6(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos7(long millis, Blackhole blackhole) {
+    useNanos7(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos8(long millis, Blackhole blackhole) {
+    useNanos8(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos9(long millis, Blackhole blackhole) {
+    useNanos9(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos10(long millis, Blackhole blackhole) {
+    useNanos10(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos11(long millis, Blackhole blackhole) {
+    useNanos11(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos12(long millis, Blackhole blackhole) {
+    useNanos12(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos13(long millis, Blackhole blackhole) {
+    useNanos13(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos14(long millis, Blackhole blackhole) {
+    useNanos14(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos15(long millis, Blackhole blackhole) {
+    useNanos15(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos16(long millis, Blackhole blackhole) {
+    useNanos16(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos17(long millis, Blackhole blackhole) {
+    useNanos17(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos18(long millis, Blackhole blackhole) {
+    useNanos18(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos19(long millis, Blackhole blackhole) {
+    useNanos19(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos20(long millis, Blackhole blackhole) {
+    useNanos20(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos21(long millis, Blackhole blackhole) {
+    useNanos21(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos22(long millis, Blackhole blackhole) {
+    useNanos22(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos23(long millis, Blackhole blackhole) {
+    useNanos23(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos24(long millis, Blackhole blackhole) {
+    useNanos24(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos25(long millis, Blackhole blackhole) {
+    useNanos25(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos26(long millis, Blackhole blackhole) {
+    useNanos26(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos27(long millis, Blackhole blackhole) {
+    useNanos27(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos28(long millis, Blackhole blackhole) {
+    useNanos28(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos29(long millis, Blackhole blackhole) {
+    useNanos29(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos30(long millis, Blackhole blackhole) {
+    useNanos30(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos31(long millis, Blackhole blackhole) {
+    useNanos31(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void startNanos32(long millis, Blackhole blackhole) {
+    useNanos32(Nanos.ofMillis(millis), blackhole);
+  }
+
+  private static void useNanos1(long nanos, Blackhole blackhole) {
+    blackhole.consume(Nanos.toMillis(nanos));
+  }
+
+  private static void useNanos2(long nanos, Blackhole blackhole) {
+    useNanos1(nanos, blackhole);
+  }
+
+  private static void useNanos3(long nanos, Blackhole blackhole) {
+    useNanos2(nanos, blackhole);
+  }
+
+  private static void useNanos4(long nanos, Blackhole blackhole) {
+    useNanos3(nanos, blackhole);
+  }
+
+  private static void useNanos5(long nanos, Blackhole blackhole) {
+    useNanos4(nanos, blackhole);
+  }
+
+  private static void useNanos6(long nanos, Blackhole blackhole) {
+    useNanos5(nanos, blackhole);
+  }
+
+  private static void useNanos7(long nanos, Blackhole blackhole) {
+    useNanos6(nanos, blackhole);
+  }
+
+  private static void useNanos8(long nanos, Blackhole blackhole) {
+    useNanos7(nanos, blackhole);
+  }
+
+  private static void useNanos9(long nanos, Blackhole blackhole) {
+    useNanos8(nanos, blackhole);
+  }
+
+  private static void useNanos10(long nanos, Blackhole blackhole) {
+    useNanos9(nanos, blackhole);
+  }
+
+  private static void useNanos11(long nanos, Blackhole blackhole) {
+    useNanos10(nanos, blackhole);
+  }
+
+  private static void useNanos12(long nanos, Blackhole blackhole) {
+    useNanos11(nanos, blackhole);
+  }
+
+  private static void useNanos13(long nanos, Blackhole blackhole) {
+    useNanos12(nanos, blackhole);
+  }
+
+  private static void useNanos14(long nanos, Blackhole blackhole) {
+    useNanos13(nanos, blackhole);
+  }
+
+  private static void useNanos15(long nanos, Blackhole blackhole) {
+    useNanos14(nanos, blackhole);
+  }
+
+  private static void useNanos16(long nanos, Blackhole blackhole) {
+    useNanos15(nanos, blackhole);
+  }
+
+  private static void useNanos17(long nanos, Blackhole blackhole) {
+    useNanos16(nanos, blackhole);
+  }
+
+  private static void useNanos18(long nanos, Blackhole blackhole) {
+    useNanos17(nanos, blackhole);
+  }
+
+  private static void useNanos19(long nanos, Blackhole blackhole) {
+    useNanos18(nanos, blackhole);
+  }
+
+  private static void useNanos20(long nanos, Blackhole blackhole) {
+    useNanos19(nanos, blackhole);
+  }
+
+  private static void useNanos21(long nanos, Blackhole blackhole) {
+    useNanos20(nanos, blackhole);
+  }
+
+  private static void useNanos22(long nanos, Blackhole blackhole) {
+    useNanos21(nanos, blackhole);
+  }
+
+  private static void useNanos23(long nanos, Blackhole blackhole) {
+    useNanos22(nanos, blackhole);
+  }
+
+  private static void useNanos24(long nanos, Blackhole blackhole) {
+    useNanos23(nanos, blackhole);
+  }
+
+  private static void useNanos25(long nanos, Blackhole blackhole) {
+    useNanos24(nanos, blackhole);
+  }
+
+  private static void useNanos26(long nanos, Blackhole blackhole) {
+    useNanos25(nanos, blackhole);
+  }
+
+  private static void useNanos27(long nanos, Blackhole blackhole) {
+    useNanos26(nanos, blackhole);
+  }
+
+  private static void useNanos28(long nanos, Blackhole blackhole) {
+    useNanos27(nanos, blackhole);
+  }
+
+  private static void useNanos29(long nanos, Blackhole blackhole) {
+    useNanos28(nanos, blackhole);
+  }
+
+  private static void useNanos30(long nanos, Blackhole blackhole) {
+    useNanos29(nanos, blackhole);
+  }
+
+  private static void useNanos31(long nanos, Blackhole blackhole) {
+    useNanos30(nanos, blackhole);
+  }
+
+  private static void useNanos32(long nanos, Blackhole blackhole) {
+    useNanos31(nanos, blackhole);
+  }
+
+  // ==================== NanosNoInline chain ====================
+
+  private static void startNanosNoInline(int depth, long millis,
+                                         Blackhole blackhole) {
+    switch (depth) {
+      case 1:
+        startNanosNoInline1(millis, blackhole);
+        return;
+      case 2:
+        startNanosNoInline2(millis, blackhole);
+        return;
+      case 3:
+        startNanosNoInline3(millis, blackhole);
+        return;
+      case 4:
+        startNanosNoInline4(millis, blackhole);
+        return;
+      case 5:
+        startNanosNoInline5(millis, blackhole);
+        return;
+      case 6:
+        startNanosNoInline6(millis, blackhole);
+        return;
+      case 7:
+        startNanosNoInline7(millis, blackhole);
+        return;
+      case 8:
+        startNanosNoInline8(millis, blackhole);
+        return;
+      case 9:
+        startNanosNoInline9(millis, blackhole);
+        return;
+      case 10:
+        startNanosNoInline10(millis, blackhole);
+        return;
+      case 11:
+        startNanosNoInline11(millis, blackhole);
+        return;
+      case 12:
+        startNanosNoInline12(millis, blackhole);
+        return;
+      case 13:
+        startNanosNoInline13(millis, blackhole);
+        return;
+      case 14:
+        startNanosNoInline14(millis, blackhole);
+        return;
+      case 15:
+        startNanosNoInline15(millis, blackhole);
+        return;
+      case 16:
+        startNanosNoInline16(millis, blackhole);
+        return;
+      case 17:
+        startNanosNoInline17(millis, blackhole);
+        return;
+      case 18:
+        startNanosNoInline18(millis, blackhole);
+        return;
+      case 19:
+        startNanosNoInline19(millis, blackhole);
+        return;
+      case 20:
+        startNanosNoInline20(millis, blackhole);
+        return;
+      case 21:
+        startNanosNoInline21(millis, blackhole);
+        return;
+      case 22:
+        startNanosNoInline22(millis, blackhole);
+        return;
+      case 23:
+        startNanosNoInline23(millis, blackhole);
+        return;
+      case 24:
+        startNanosNoInline24(millis, blackhole);
+        return;
+      case 25:
+        startNanosNoInline25(millis, blackhole);
+        return;
+      case 26:
+        startNanosNoInline26(millis, blackhole);
+        return;
+      case 27:
+        startNanosNoInline27(millis, blackhole);
+        return;
+      case 28:
+        startNanosNoInline28(millis, blackhole);
+        return;
+      case 29:
+        startNanosNoInline29(millis, blackhole);
+        return;
+      case 30:
+        startNanosNoInline30(millis, blackhole);
+        return;
+      case 31:
+        startNanosNoInline31(millis, blackhole);
+        return;
+      case 32:
+        startNanosNoInline32(millis, blackhole);
+        return;
+      default:
+        throw new IllegalArgumentException("Unsupported depth: " + depth);
+    }
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline1(long millis, Blackhole blackhole) {
+    useNanosNoInline1(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline2(long millis, Blackhole blackhole) {
+    useNanosNoInline2(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline3(long millis, Blackhole blackhole) {
+    useNanosNoInline3(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline4(long millis, Blackhole blackhole) {
+    useNanosNoInline4(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline5(long millis, Blackhole blackhole) {
+    useNanosNoInline5(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline6(long millis, Blackhole blackhole) {
+    useNanosNoInline6(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline7(long millis, Blackhole blackhole) {
+    useNanosNoInline7(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline8(long millis, Blackhole blackhole) {
+    useNanosNoInline8(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline9(long millis, Blackhole blackhole) {
+    useNanosNoInline9(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline10(long millis, Blackhole blackhole) {
+    useNanosNoInline10(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline11(long millis, Blackhole blackhole) {
+    useNanosNoInline11(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline12(long millis, Blackhole blackhole) {
+    useNanosNoInline12(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline13(long millis, Blackhole blackhole) {
+    useNanosNoInline13(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline14(long millis, Blackhole blackhole) {
+    useNanosNoInline14(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline15(long millis, Blackhole blackhole) {
+    useNanosNoInline15(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline16(long millis, Blackhole blackhole) {
+    useNanosNoInline16(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline17(long millis, Blackhole blackhole) {
+    useNanosNoInline17(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline18(long millis, Blackhole blackhole) {
+    useNanosNoInline18(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline19(long millis, Blackhole blackhole) {
+    useNanosNoInline19(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline20(long millis, Blackhole blackhole) {
+    useNanosNoInline20(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline21(long millis, Blackhole blackhole) {
+    useNanosNoInline21(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline22(long millis, Blackhole blackhole) {
+    useNanosNoInline22(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline23(long millis, Blackhole blackhole) {
+    useNanosNoInline23(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline24(long millis, Blackhole blackhole) {
+    useNanosNoInline24(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline25(long millis, Blackhole blackhole) {
+    useNanosNoInline25(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline26(long millis, Blackhole blackhole) {
+    useNanosNoInline26(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline27(long millis, Blackhole blackhole) {
+    useNanosNoInline27(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline28(long millis, Blackhole blackhole) {
+    useNanosNoInline28(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline29(long millis, Blackhole blackhole) {
+    useNanosNoInline29(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline30(long millis, Blackhole blackhole) {
+    useNanosNoInline30(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline31(long millis, Blackhole blackhole) {
+    useNanosNoInline31(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void startNanosNoInline32(long millis, Blackhole blackhole) {
+    useNanosNoInline32(Nanos.ofMillis(millis), blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline1(long nanos, Blackhole blackhole) {
+    blackhole.consume(Nanos.toMillis(nanos));
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline2(long nanos, Blackhole blackhole) {
+    useNanosNoInline1(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline3(long nanos, Blackhole blackhole) {
+    useNanosNoInline2(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline4(long nanos, Blackhole blackhole) {
+    useNanosNoInline3(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline5(long nanos, Blackhole blackhole) {
+    useNanosNoInline4(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline6(long nanos, Blackhole blackhole) {
+    useNanosNoInline5(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline7(long nanos, Blackhole blackhole) {
+    useNanosNoInline6(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline8(long nanos, Blackhole blackhole) {
+    useNanosNoInline7(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline9(long nanos, Blackhole blackhole) {
+    useNanosNoInline8(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline10(long nanos, Blackhole blackhole) {
+    useNanosNoInline9(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline11(long nanos, Blackhole blackhole) {
+    useNanosNoInline10(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline12(long nanos, Blackhole blackhole) {
+    useNanosNoInline11(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline13(long nanos, Blackhole blackhole) {
+    useNanosNoInline12(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline14(long nanos, Blackhole blackhole) {
+    useNanosNoInline13(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline15(long nanos, Blackhole blackhole) {
+    useNanosNoInline14(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline16(long nanos, Blackhole blackhole) {
+    useNanosNoInline15(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline17(long nanos, Blackhole blackhole) {
+    useNanosNoInline16(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline18(long nanos, Blackhole blackhole) {
+    useNanosNoInline17(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline19(long nanos, Blackhole blackhole) {
+    useNanosNoInline18(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline20(long nanos, Blackhole blackhole) {
+    useNanosNoInline19(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline21(long nanos, Blackhole blackhole) {
+    useNanosNoInline20(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline22(long nanos, Blackhole blackhole) {
+    useNanosNoInline21(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline23(long nanos, Blackhole blackhole) {
+    useNanosNoInline22(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline24(long nanos, Blackhole blackhole) {
+    useNanosNoInline23(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline25(long nanos, Blackhole blackhole) {
+    useNanosNoInline24(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline26(long nanos, Blackhole blackhole) {
+    useNanosNoInline25(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline27(long nanos, Blackhole blackhole) {
+    useNanosNoInline26(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline28(long nanos, Blackhole blackhole) {
+    useNanosNoInline27(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline29(long nanos, Blackhole blackhole) {
+    useNanosNoInline28(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline30(long nanos, Blackhole blackhole) {
+    useNanosNoInline29(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline31(long nanos, Blackhole blackhole) {
+    useNanosNoInline30(nanos, blackhole);
+  }
+
+  @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+  private static void useNanosNoInline32(long nanos, Blackhole blackhole) {
+    useNanosNoInline31(nanos, blackhole);
+  }
+
+  // What to expect (when run with `-prof gc`):
+  //
+  // duration with inline=true should show gc.alloc.rate.norm ≈ 0 B/op up to
+  // some depth and 24 B/op beyond it (DurationOverhead saw the switch
+  // between 5 and 9). Where exactly depends on the JVM's inlining limits
+  // (MaxInlineLevel, which went from 9 to 15 in JDK 14, and InlineSmallCode),
+  // so rerun this on the JVM you deploy on. duration with inline=false
+  // should allocate 24 B/op at every depth, and nanos should never
+  // allocate.
+}
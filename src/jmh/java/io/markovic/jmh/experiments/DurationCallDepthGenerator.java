@@ -0,0 +1,156 @@
+package io.markovic.jmh.experiments;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+// Writes DurationCallDepth's `depth` @Param and its call chains, which are
+// too long and too regular to keep in sync by hand. From the repository
+// root, after changing MAX_DEPTH or the chain templates below:
+//
+//   java src/jmh/java/io/markovic/jmh/experiments/DurationCallDepthGenerator.java
+//
+// It rewrites DurationCallDepth.java in place, from the @Param to the end
+// of the last chain; everything else in that file is edited by hand.
+final class DurationCallDepthGenerator {
+  private static final int MAX_DEPTH = 32;
+  private static final int COLUMNS = 80;
+  private static final Path TARGET = Paths.get(
+      "src/jmh/java/io/markovic/jmh/experiments/DurationCallDepth.java");
+  private static final String PARAM_START = "  @Param({\"1\"";
+  private static final String CHAINS_START = "  // ==================== ";
+  private static final String CHAINS_END = "  // What to expect";
+
+  private final List<String> out = new ArrayList<>();
+
+  public static void main(String[] args) throws IOException {
+    List<String> lines = Files.readAllLines(TARGET, StandardCharsets.UTF_8);
+    int paramStart = indexOf(lines, PARAM_START, 0);
+    int chainsStart = indexOf(lines, CHAINS_START, paramStart);
+    int chainsEnd = indexOf(lines, CHAINS_END, chainsStart);
+
+    DurationCallDepthGenerator generator = new DurationCallDepthGenerator();
+    List<String> result = new ArrayList<>(lines.subList(0, paramStart));
+    result.addAll(generator.param());
+    // The @Param's own lines end at its closing "})".
+    int paramEnd = paramStart;
+    while (!lines.get(paramEnd).endsWith("})")) {
+      paramEnd++;
+    }
+    result.addAll(lines.subList(paramEnd + 1, chainsStart));
+    result.addAll(generator.chains());
+    result.addAll(lines.subList(chainsEnd, lines.size()));
+    Files.write(TARGET, result, StandardCharsets.UTF_8);
+  }
+
+  private static int indexOf(List<String> lines, String prefix, int from) {
+    for (int i = from; i < lines.size(); i++) {
+      if (lines.get(i).startsWith(prefix)) {
+        return i;
+      }
+    }
+    throw new IllegalStateException(
+        "No line starting with \"" + prefix + "\" in " + TARGET);
+  }
+
+  private List<String> param() {
+    List<String> values = new ArrayList<>();
+    for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+      values.add("\"" + depth + "\"");
+    }
+    return wrap("  @Param({", values, "})");
+  }
+
+  private List<String> chains() {
+    out.clear();
+    chain("Duration", "Duration", "duration", "Duration.ofMillis(millis)",
+          "blackhole.consume(duration.toMillis());", false);
+    chain("DurationNoInline", "Duration", "duration",
+          "Duration.ofMillis(millis)",
+          "blackhole.consume(duration.toMillis());", true);
+    chain("Nanos", "long", "nanos", "Nanos.ofMillis(millis)",
+          "blackhole.consume(Nanos.toMillis(nanos));", false);
+    chain("NanosNoInline", "long", "nanos", "Nanos.ofMillis(millis)",
+          "blackhole.consume(Nanos.toMillis(nanos));", true);
+    return out;
+  }
+
+  // start<name>(depth) dispatches to start<name><depth>, which creates the
+  // value and calls use<name><depth>, which calls use<name><depth - 1>,
+  // down to use<name>1, which consumes it.
+  private void chain(String name, String type, String var, String create,
+                     String consume, boolean noInline) {
+    out.add("  // ==================== " + name
+            + " chain ====================");
+    out.add("");
+    out.addAll(signature("start" + name, "int depth", "long millis",
+                         "Blackhole blackhole"));
+    out.add("    switch (depth) {");
+    for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+      out.add("      case " + depth + ":");
+      out.add("        start" + name + depth + "(millis, blackhole);");
+      out.add("        return;");
+    }
+    out.add("      default:");
+    out.add("        throw new IllegalArgumentException(\"Unsupported depth: \""
+            + " + depth);");
+    out.add("    }");
+    out.add("  }");
+
+    for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+      method(noInline, signature("start" + name + depth, "long millis",
+                                 "Blackhole blackhole"),
+             "    use" + name + depth + "(" + create + ", blackhole);");
+    }
+    for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+      method(noInline, signature("use" + name + depth, type + " " + var,
+                                 "Blackhole blackhole"),
+             depth == 1
+                 ? "    " + consume
+                 : "    use" + name + (depth - 1) + "(" + var
+                     + ", blackhole);");
+    }
+    out.add("");
+  }
+
+  private void method(boolean noInline, List<String> signature,
+                      String body) {
+    out.add("");
+    if (noInline) {
+      out.add("  @CompilerControl(CompilerControl.Mode.DONT_INLINE)");
+    }
+    out.addAll(signature);
+    out.add(body);
+    out.add("  }");
+  }
+
+  private static List<String> signature(String method, String... params) {
+    return wrap("  private static void " + method + "(", List.of(params),
+                ") {");
+  }
+
+  // prefix, then the items separated by ", ", then suffix, wrapped at
+  // COLUMNS with continuation lines aligned after the prefix.
+  private static List<String> wrap(String prefix, List<String> items,
+                                   String suffix) {
+    String indent = " ".repeat(prefix.length());
+    List<String> lines = new ArrayList<>();
+    StringBuilder line = new StringBuilder(prefix);
+    for (int i = 0; i < items.size(); i++) {
+      String item = items.get(i) + (i == items.size() - 1 ? suffix : ",");
+      boolean first = line.length() == prefix.length();
+      if (!first && line.length() + 1 + item.length() > COLUMNS) {
+        lines.add(line.toString());
+        line = new StringBuilder(indent).append(item);
+      } else {
+        line.append(first ? "" : " ").append(item);
+      }
+    }
+    lines.add(line.toString());
+    return lines;
+  }
+}
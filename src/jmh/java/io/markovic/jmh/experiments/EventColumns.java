@@ -0,0 +1,345 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.collect.RecordStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Event batches as objects vs as columns: the same `rows` events (a
+// timestamp, a user id, one of 8 types and an amount) held as an
+// ArrayList<Event>, an Event[], or an io.markovic.jmh.collect.RecordStore
+// with one primitive array per field. IteratorPerf measures the
+// ArrayList<String> version of this pointer chasing; here the objects
+// are the records themselves.
+//
+// All three are filled from the same seed, in row order, so the objects
+// are allocated (and after a GC, laid out) in the order they're scanned.
+// That's the best case for the object layouts. Each structure lives in
+// its own state, so a benchmark only has the one it uses on the heap.
+//
+// - sumAmount*: a full scan of one column. store reads the backing
+//   array, cursor goes through RecordStore.Cursor.
+// - filteredSum*: the sum of the amounts of one type of event past a
+//   timestamp (1/16 of the rows), which reads three fields per row.
+// - readRow*: all four fields of a random row.
+// - build*: fill a new structure with `rows` events. gc.alloc.rate.norm
+//   divided by `rows` is the bytes per row, growth included; with
+//   buildStorePresized there's no growth, so that's also what the store
+//   keeps per row.
+//
+// The heap is fixed at 4 GB so that 50M objects fit. main() adds the GC
+// profiler.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class EventColumns {
+  private static final int LOOKUPS = 1024;
+  private static final int TYPES = 8;
+  private static final int PURCHASE = 3;
+  private static final long START = 1_600_000_000_000L;
+
+  @Param({"1000", "100000", "10000000", "50000000"})
+  public int rows;
+
+  int[] lookups = new int[LOOKUPS];
+  int next;
+  // filteredSum* only counts events at or after this, the middle of the
+  // batch.
+  long from;
+
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    for (int i = 0; i < LOOKUPS; i++) {
+      lookups[i] = random.nextInt(rows);
+    }
+    from = START + rows / 2 * 10L;
+  }
+
+  static final class Event {
+    final long timestamp;
+    final int userId;
+    final int type;
+    final double amount;
+
+    Event(long timestamp, int userId, int type, double amount) {
+      this.timestamp = timestamp;
+      this.userId = userId;
+      this.type = type;
+      this.amount = amount;
+    }
+  }
+
+  interface EventSink {
+    void accept(long timestamp, int userId, int type, double amount);
+  }
+
+  // About one event every 10 ms.
+  void generate(EventSink sink) {
+    SplittableRandom random = new SplittableRandom(7);
+    for (int i = 0; i < rows; i++) {
+      sink.accept(START + i * 10L + random.nextInt(10),
+                  random.nextInt(100_000),
+                  random.nextInt(TYPES),
+                  random.nextInt(100_000) / 100.0);
+    }
+  }
+
+  private int next() {
+    return lookups[next++ & (LOOKUPS - 1)];
+  }
+
+  @State(Scope.Thread)
+  public static class Objects {
+    List<Event> list;
+
+    @Setup
+    public void setup(EventColumns events) {
+      list = events.buildList();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Array {
+    Event[] array;
+
+    @Setup
+    public void setup(EventColumns events) {
+      array = events.buildArray();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Columns {
+    RecordStore store;
+    RecordStore.LongColumn timestamp;
+    RecordStore.IntColumn userId;
+    RecordStore.IntColumn type;
+    RecordStore.DoubleColumn amount;
+
+    @Setup
+    public void setup(EventColumns events) {
+      fill(events, new RecordStore());
+    }
+
+    void fill(EventColumns events, RecordStore store) {
+      this.store = store;
+      timestamp = store.addLongColumn("timestamp");
+      userId = store.addIntColumn("userId");
+      type = store.addIntColumn("type");
+      amount = store.addDoubleColumn("amount");
+      events.generate((timestamp, userId, type, amount) -> {
+        int row = store.addRow();
+        this.timestamp.set(row, timestamp);
+        this.userId.set(row, userId);
+        this.type.set(row, type);
+        this.amount.set(row, amount);
+      });
+    }
+  }
+
+  @Benchmark
+  public List<Event> buildList() {
+    List<Event> list = new ArrayList<>();
+    generate((timestamp, userId, type, amount) ->
+        list.add(new Event(timestamp, userId, type, amount)));
+    return list;
+  }
+
+  @Benchmark
+  public Event[] buildArray() {
+    Event[] array = new Event[rows];
+    int[] row = {0};
+    generate((timestamp, userId, type, amount) ->
+        array[row[0]++] = new Event(timestamp, userId, type, amount));
+    return array;
+  }
+
+  @Benchmark
+  public RecordStore buildStore() {
+    Columns columns = new Columns();
+    columns.fill(this, new RecordStore());
+    return columns.store;
+  }
+
+  @Benchmark
+  public RecordStore buildStorePresized() {
+    Columns columns = new Columns();
+    columns.fill(this, new RecordStore(rows));
+    return columns.store;
+  }
+
+  @Benchmark
+  public double sumAmountList(Objects objects) {
+    List<Event> list = objects.list;
+    double sum = 0;
+    for (int i = 0; i < list.size(); i++) {
+      sum += list.get(i).amount;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double sumAmountArray(Array array) {
+    double sum = 0;
+    for (Event event : array.array) {
+      sum += event.amount;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double sumAmountStore(Columns columns) {
+    double[] amounts = columns.amount.array();
+    int size = columns.store.size();
+    double sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += amounts[i];
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double sumAmountCursor(Columns columns) {
+    RecordStore.DoubleColumn amount = columns.amount;
+    RecordStore.Cursor cursor = columns.store.cursor();
+    double sum = 0;
+    while (cursor.next()) {
+      sum += cursor.get(amount);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double filteredSumList(Objects objects) {
+    List<Event> list = objects.list;
+    long from = this.from;
+    double sum = 0;
+    for (int i = 0; i < list.size(); i++) {
+      Event event = list.get(i);
+      if (event.type == PURCHASE && event.timestamp >= from) {
+        sum += event.amount;
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double filteredSumArray(Array array) {
+    long from = this.from;
+    double sum = 0;
+    for (Event event : array.array) {
+      if (event.type == PURCHASE && event.timestamp >= from) {
+        sum += event.amount;
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double filteredSumStore(Columns columns) {
+    long[] timestamps = columns.timestamp.array();
+    int[] types = columns.type.array();
+    double[] amounts = columns.amount.array();
+    int size = columns.store.size();
+    long from = this.from;
+    double sum = 0;
+    for (int i = 0; i < size; i++) {
+      if (types[i] == PURCHASE && timestamps[i] >= from) {
+        sum += amounts[i];
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double filteredSumCursor(Columns columns) {
+    RecordStore.LongColumn timestamp = columns.timestamp;
+    RecordStore.IntColumn type = columns.type;
+    RecordStore.DoubleColumn amount = columns.amount;
+    RecordStore.Cursor cursor = columns.store.cursor();
+    long from = this.from;
+    double sum = 0;
+    while (cursor.next()) {
+      if (cursor.get(type) == PURCHASE && cursor.get(timestamp) >= from) {
+        sum += cursor.get(amount);
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double readRowList(Objects objects) {
+    Event event = objects.list.get(next());
+    return event.timestamp + event.userId + event.type + event.amount;
+  }
+
+  @Benchmark
+  public double readRowArray(Array array) {
+    Event event = array.array[next()];
+    return event.timestamp + event.userId + event.type + event.amount;
+  }
+
+  @Benchmark
+  public double readRowStore(Columns columns) {
+    int row = next();
+    return columns.timestamp.get(row) + columns.userId.get(row)
+        + columns.type.get(row) + columns.amount.get(row);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(EventColumns.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  // What to expect (when run with `-prof gc`):
+  //
+  // Bytes per row, with compressed oops: an Event is a 12 B header plus
+  // 24 B of fields, padded to 40 B, plus a 4 B reference in the array, so
+  // buildArray allocates 44 B/row and buildList ~57 B/row (the ArrayList
+  // regrows its array on the way). The store keeps 24 B/row, which is
+  // what buildStorePresized allocates; buildStore allocates ~74 B/row,
+  // since every 1.5x growth copies all four columns (the list only
+  // copies its references). Scans and lookups don't allocate.
+  //
+  // At 1K rows everything fits in cache and the layouts are close: a
+  // quick run had every sumAmount* at ~0.8 ns/row (a double sum can't be
+  // reordered, so nothing vectorizes), and filteredSumArray slightly
+  // ahead of filteredSumStore. From ~10M rows the scans are memory
+  // bound, and the store reads 8 B per row for sumAmount where the
+  // objects drag in a whole 40 B Event: ~4x faster than the list and
+  // array there, and ~2.5x on filteredSum*, which reads 20 B of columns.
+  // The cursor costs about nothing over the raw arrays.
+  //
+  // readRowStore is the one the objects win, by ~2x: a random row is 4
+  // loads from 4 arrays (4 cache misses once they're big) and 4 bounds
+  // checks against the store's size, vs 1 object on 1 cache line.
+  // build*: at 1K rows buildStore was the slowest (its copies and the
+  // setters' checks), at 10M ~2x faster than the objects, which spend
+  // their time in young GCs copying Events to the old generation, and
+  // buildStorePresized ~2x faster again.
+}
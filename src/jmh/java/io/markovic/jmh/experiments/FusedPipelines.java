@@ -0,0 +1,145 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.pipeline.IntPipeline;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Streams found that at 4 elements, setting up a stream costs more than
+// the work and allocates ~240 B per call. Does a pipeline that's built
+// once (io.markovic.jmh.pipeline.IntPipeline) do better?
+//
+// Each benchmark sums `size` random ints through `depth` stages,
+// alternating a map and a filter (that keeps ~3/4 of the elements), with
+// a different non-capturing lambda per stage:
+//
+// - stream: Arrays.stream(values) with the stages added on every call,
+//   which is what calling code does.
+// - pipeline: an IntPipeline with the same stages, built in setup.
+// - loop: a plain loop calling the same lambdas in order, as the floor.
+//
+// You MUST run this with `-prof GC` on the command line to see GC
+// statistics; main() does, and fails if pipeline allocates.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+@Fork(2)
+public class FusedPipelines {
+  private static final IntUnaryOperator[] MAPS = {
+      x -> x * 31 + 7,
+      x -> x ^ x >>> 7,
+      x -> x + 0x9E37,
+      x -> x * 5 - 3,
+  };
+  private static final IntPredicate[] FILTERS = {
+      x -> (x & 3) != 0,
+      x -> (x & 12) != 0,
+      x -> (x & 48) != 0,
+      x -> (x & 192) != 0,
+  };
+
+  @Param({"0", "1", "4", "16", "100", "1000"})
+  public int size;
+
+  @Param({"1", "2", "4", "8"})
+  public int depth;
+
+  int[] values;
+  IntPipeline pipeline;
+
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    values = new int[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = random.nextInt();
+    }
+    pipeline = IntPipeline.identity();
+    for (int i = 0; i < depth; i++) {
+      pipeline = i % 2 == 0
+          ? pipeline.map(MAPS[i / 2])
+          : pipeline.filter(FILTERS[i / 2]);
+    }
+  }
+
+  @Benchmark
+  public long stream() {
+    IntStream stream = Arrays.stream(values);
+    for (int i = 0; i < depth; i++) {
+      stream = i % 2 == 0
+          ? stream.map(MAPS[i / 2])
+          : stream.filter(FILTERS[i / 2]);
+    }
+    return stream.sum();
+  }
+
+  @Benchmark
+  public long pipeline() {
+    return pipeline.sum(values);
+  }
+
+  @Benchmark
+  public long loop() {
+    long sum = 0;
+    next:
+    for (int value : values) {
+      for (int i = 0; i < depth; i++) {
+        if (i % 2 == 0) {
+          value = MAPS[i / 2].applyAsInt(value);
+        } else if (!FILTERS[i / 2].test(value)) {
+          continue next;
+        }
+      }
+      sum += value;
+    }
+    return sum;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(FusedPipelines.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    AllocationCheck.assertNoAllocation(new Runner(opt).run(), "\\.pipeline");
+  }
+
+  // What to expect (when run with `-prof gc`):
+  //
+  // stream allocates the stream and a stage per map/filter on every call,
+  // whatever the size: ~240 B at depth 1, ~850 B at depth 8. At 0-16
+  // elements that setup is most of its time, and pipeline should be
+  // several times faster with ≈ 0 B/op: in a quick run (1 fork, on one
+  // core, so ±50%), 3 vs 80-250 ns at 0 elements and 10-110 vs 70-470 ns
+  // at 4. By 1000 elements the setup is amortized and both push each int
+  // through the same kind of sink chain, so they came out within noise of
+  // each other (~0.8 ns per element at depth 1, ~24 at depth 8, where
+  // each chain's lambda call sites see 4 lambdas and stop inlining).
+  //
+  // loop isn't really a floor: it reloads the lambda arrays and
+  // dispatches every map through one call site and every filter through
+  // another. At depth 4 each sees 2 lambdas, which HotSpot still inlines
+  // behind a type check; at depth 8 each sees 4 and goes megamorphic, so
+  // expect it to fall behind both there.
+}
@@ -0,0 +1,119 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.metrics.LatencyHistogram;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// What does it cost to collect our own latency percentiles (what JMH's
+// SampleTime mode does for benchmarks) with io.markovic.jmh.metrics
+// .LatencyHistogram?
+//
+// `record` is meant to be run from 1 to N threads; main() does that sweep
+// (with the GC profiler, failing if recording allocates). `stripes` = 1
+// puts every thread on the same counters, `stripes` = 64 gives (almost)
+// every thread its own.
+//
+// The snapshot* benchmarks are single-threaded and show how snapshot cost
+// grows with histogram size: the buckets per stripe, 2^(precisionBits-1)
+// for every power of two, times the number of stripes.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@Fork(2)
+public class HistogramRecording {
+  @Param({"3", "6", "9"})
+  public int precisionBits;
+
+  @Param({"1", "64"})
+  public int stripes;
+
+  LatencyHistogram histogram;
+  LatencyHistogram.Snapshot snapshot;
+
+  // Pre-generated so we don't measure the RNG; log-uniform between 1 ns and
+  // ~1 s, which is roughly what latencies look like.
+  @State(Scope.Thread)
+  public static class Values {
+    final long[] values = new long[4096];
+    int next;
+
+    @Setup
+    public void setup() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      for (int i = 0; i < values.length; i++) {
+        values[i] = (long) Math.exp(random.nextDouble() * Math.log(1e9));
+      }
+    }
+
+    long next() {
+      return values[next++ & (values.length - 1)];
+    }
+  }
+
+  @Setup
+  public void setup() {
+    histogram = new LatencyHistogram(precisionBits, stripes);
+    snapshot = new LatencyHistogram.Snapshot(precisionBits);
+    // So the snapshot benchmarks don't just see empty stripes.
+    Values values = new Values();
+    values.setup();
+    for (int i = 0; i < 1_000_000; i++) {
+      histogram.record(values.next());
+    }
+  }
+
+  @Benchmark
+  public void record(Values values) {
+    histogram.record(values.next());
+  }
+
+  @Benchmark
+  @Threads(1)
+  public LatencyHistogram.Snapshot snapshotInto() {
+    histogram.snapshotInto(snapshot);
+    return snapshot;
+  }
+
+  @Benchmark
+  @Threads(1)
+  public long snapshotP999() {
+    histogram.snapshotInto(snapshot);
+    return snapshot.valueAtPercentile(99.9);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(HistogramRecording.class.getSimpleName() + ".record")
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    AllocationCheck.assertNoAllocation(ThreadSweep.run(opt), "\\.record");
+  }
+
+  // What to expect:
+  //
+  // Single-threaded, record is a handful of ns (bucket math plus an
+  // uncontended atomic add). With stripes=1 the atomic adds from every
+  // thread hit the same few hot buckets and per-thread throughput falls off
+  // quickly; with stripes=64 it should stay roughly flat. Snapshot cost is
+  // linear in buckets * stripes (~1.9K buckets per stripe at
+  // precisionBits=6) and independent of how many values were recorded.
+}
@@ -1,7 +1,17 @@
 package io.markovic.jmh.experiments;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -16,6 +26,12 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
@@ -51,6 +67,155 @@ public class IteratorGC {
     }
   }
 
+  // The same question for the other collections we iterate on hot paths:
+  // does the iterator (and any wrapper around it) get escape-analyzed
+  // away? Every `collection` holds the same `numStrings` strings; the map
+  // ones iterate a view of a map from each string to itself:
+  //
+  // - "arraylist" (the baseline above), "linkedlist", "arraydeque",
+  //   "cowarraylist" (CopyOnWriteArrayList) and "listof" (List.copyOf).
+  // - "hashmap-keyset", "hashmap-entryset", "hashmap-values",
+  //   "linkedhashmap-entryset", "treemap-keyset" and "treemap-entryset".
+  // - "unmodifiable" and "synchronized": Collections.unmodifiableList and
+  //   synchronizedList around an ArrayList. "sublist": the middle half of
+  //   an ArrayList of 2 * numStrings, through subList().
+  //
+  // surveyForEachLoop is forEachLoop over each; surveyForEachMethod calls
+  // Iterable.forEach instead, which most of these implement without an
+  // iterator. Each fork only ever sees one collection, so the loop's call
+  // sites stay monomorphic (see ProfilePollution for when they don't).
+  // main() prints gc.alloc.rate.norm per collection and size.
+  @State(Scope.Benchmark)
+  public static class Survey {
+    @Param({"arraylist", "linkedlist", "arraydeque", "cowarraylist",
+            "listof", "hashmap-keyset", "hashmap-entryset",
+            "hashmap-values", "linkedhashmap-entryset", "treemap-keyset",
+            "treemap-entryset", "unmodifiable", "synchronized", "sublist"})
+    public String collection;
+
+    Iterable<?> iterable;
+
+    @Setup
+    public void setup(IteratorGC gc) {
+      List<String> strings = gc.strings;
+      switch (collection) {
+        case "arraylist":
+          iterable = new ArrayList<>(strings);
+          break;
+        case "linkedlist":
+          iterable = new LinkedList<>(strings);
+          break;
+        case "arraydeque":
+          iterable = new ArrayDeque<>(strings);
+          break;
+        case "cowarraylist":
+          iterable = new CopyOnWriteArrayList<>(strings);
+          break;
+        case "listof":
+          iterable = List.copyOf(strings);
+          break;
+        case "hashmap-keyset":
+          iterable = toMap(strings, new HashMap<>()).keySet();
+          break;
+        case "hashmap-entryset":
+          iterable = toMap(strings, new HashMap<>()).entrySet();
+          break;
+        case "hashmap-values":
+          iterable = toMap(strings, new HashMap<>()).values();
+          break;
+        case "linkedhashmap-entryset":
+          iterable = toMap(strings, new LinkedHashMap<>()).entrySet();
+          break;
+        case "treemap-keyset":
+          iterable = toMap(strings, new TreeMap<>()).keySet();
+          break;
+        case "treemap-entryset":
+          iterable = toMap(strings, new TreeMap<>()).entrySet();
+          break;
+        case "unmodifiable":
+          iterable = Collections.unmodifiableList(new ArrayList<>(strings));
+          break;
+        case "synchronized":
+          iterable = Collections.synchronizedList(new ArrayList<>(strings));
+          break;
+        case "sublist":
+          List<String> doubled = new ArrayList<>(strings.size() * 2);
+          doubled.addAll(strings.subList(0, strings.size() / 2));
+          doubled.addAll(strings);
+          doubled.addAll(strings.subList(strings.size() / 2, strings.size()));
+          iterable = doubled.subList(strings.size() / 2,
+                                     strings.size() / 2 + strings.size());
+          break;
+        default:
+          throw new IllegalArgumentException(
+              "Unknown collection: " + collection);
+      }
+    }
+
+    private static Map<String, String> toMap(List<String> strings,
+                                             Map<String, String> map) {
+      for (String s : strings) {
+        map.put(s, s);
+      }
+      return map;
+    }
+  }
+
+  @Benchmark
+  public void surveyForEachLoop(Survey survey, Blackhole blackhole) {
+    for (Object o : survey.iterable) {
+      blackhole.consume(o);
+    }
+  }
+
+  @Benchmark
+  public void surveyForEachMethod(Survey survey, Blackhole blackhole) {
+    survey.iterable.forEach(blackhole::consume);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(IteratorGC.class.getSimpleName() + ".survey")
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    printAllocations(new Runner(opt).run());
+  }
+
+  // One line per benchmark and collection, one column per numStrings.
+  private static void printAllocations(Collection<RunResult> results) {
+    // "benchmark (collection)" -> numStrings -> B/op
+    Map<String, Map<Integer, Double>> rows = new TreeMap<>();
+    TreeSet<Integer> allNumStrings = new TreeSet<>();
+    for (RunResult result : results) {
+      String benchmark = result.getParams().getBenchmark();
+      benchmark = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+      int numStrings =
+          Integer.parseInt(result.getParams().getParam("numStrings"));
+      String row = String.format(
+          "%s (%s)", benchmark, result.getParams().getParam("collection"));
+      allNumStrings.add(numStrings);
+      rows.computeIfAbsent(row, k -> new TreeMap<>())
+          .put(numStrings, AllocationCheck.bytesPerOp(result));
+    }
+
+    System.out.println();
+    System.out.printf("%-50s", "gc.alloc.rate.norm (B/op)");
+    for (int numStrings : allNumStrings) {
+      System.out.printf(" %8d", numStrings);
+    }
+    System.out.println();
+    for (Map.Entry<String, Map<Integer, Double>> row : rows.entrySet()) {
+      System.out.printf("%-50s", row.getKey());
+      for (int numStrings : allNumStrings) {
+        Double bytes = row.getValue().get(numStrings);
+        System.out.printf(" %8s",
+                          bytes == null ? "-" : String.format("%.1f", bytes));
+      }
+      System.out.println();
+    }
+  }
+
   // RESULTS! (When run with `-prof gc`)
   //
   // Benchmark                                   (numItems)  Mode  Cnt     Score     Error   Units
@@ -106,4 +271,18 @@ public class IteratorGC {
   // loop unrolling etc.
   // We use this benchmark strictly to test GC overhead. To see perf overhead
   // of iterators, head over to IteratorPerf.java.
+
+  // What to expect from the survey (main() prints the table):
+  //
+  // Mostly the same story: in a quick run (1 fork, 10 and 1000 strings)
+  // the for-each iterators of the lists, the deque, the HashMap,
+  // LinkedHashMap and TreeMap views, List.copyOf and subList were all
+  // removed, ≈ 0 B/op. The exceptions were the wrappers: unmodifiable
+  // allocated 32 B/op at both sizes (its iterator wraps ArrayList's, and
+  // the pair wasn't scalar-replaced), and synchronized did at 1000 (its
+  // iterator is the ArrayList's, so that's down to inlining decisions in
+  // the bigger loop). Iterable.forEach allocated nothing for those, but a
+  // few B/op on average for hashmap-values and treemap-keyset at 1000,
+  // i.e. on some ops and not others. These depend on inlining, so check
+  // them on the JVM and the loop that matters before trusting them.
 }
@@ -1,5 +1,7 @@
 package io.markovic.jmh.experiments;
 
+import io.markovic.jmh.collect.IntArrayList;
+import io.markovic.jmh.collect.LongArrayList;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
@@ -17,95 +19,311 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
 @Warmup(iterations = 5)
 @Measurement(iterations = 5)
 @State(Scope.Thread)
-@Fork(2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
 public class IteratorPerf {
-  @Param({"10", "100", "1000", "10000"})
+  // Every fork gets the same fixed 1 GB heap, whatever the machine's
+  // default: at 10M items, the biggest state (Strings) keeps ~500 MB live.
+  @Param({"10", "100", "1000", "10000", "100000", "10000000"})
   public int numItems;
 
-  // Use something more complex than an int/long/double because it's more
-  // likely that app code is manipulating complex objects.
-  List<String> strings;
-  List<Integer> ints;
+  // The strings, in their own state so that only the *Strings benchmarks
+  // build them.
+  @State(Scope.Thread)
+  public static class Strings {
+    // Use something more complex than an int/long/double because it's
+    // more likely that app code is manipulating complex objects.
+    List<String> list;
 
-  private static String getRandomString() {
-    return RandomStringUtils.random(
-        ThreadLocalRandom.current().nextInt(5, 10));
-  }
+    @Setup
+    public void setup(IteratorPerf perf) {
+      list = new ArrayList<>(perf.numItems);
+      for (int i = 0; i < perf.numItems; i++) {
+        list.add(getRandomString());
+      }
+    }
 
-  @Setup
-  public void setup() {
-    strings = new ArrayList<>(numItems);
-    ints = new ArrayList<>(numItems);
-    for (int i = 0; i < numItems; i++) {
-      strings.add(getRandomString());
-      ints.add(ThreadLocalRandom.current().nextInt(5, 10));
+    private static String getRandomString() {
+      return RandomStringUtils.random(
+          ThreadLocalRandom.current().nextInt(5, 10));
     }
-  }
 
-  // Needed to prevent the JIT from realizing that summing the list always
-  // returns the same result and thus the whole loop can just be replaced
-  // with a constant!
-  private void perturbStringList() {
-    ThreadLocalRandom random = ThreadLocalRandom.current();
-    int index = random.nextInt(0, strings.size());
-    strings.set(index, getRandomString());
+    // Needed to prevent the JIT from realizing that summing the list
+    // always returns the same result and thus the whole loop can just be
+    // replaced with a constant!
+    void perturb() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int index = random.nextInt(0, list.size());
+      list.set(index, getRandomString());
+    }
   }
 
-  // Needed to prevent the JIT from realizing that summing the list always
-  // returns the same result and thus the whole loop can just be replaced
-  // with a constant!
-  private void perturbIntList() {
-    ThreadLocalRandom random = ThreadLocalRandom.current();
-    int index = random.nextInt(0, strings.size());
-    ints.set(index, random.nextInt(10, 50));
+  // The boxed ints, in their own state so that only the benchmarks that
+  // box (the *Ints loops and buildBoxedList*) run for every `valueRange`.
+  // `values` holds the same ints unboxed, for buildBoxedList to box.
+  //
+  // Integer.valueOf (i.e. autoboxing) only caches -128..127 by default, so
+  // "cached" values share a few dozen boxes, "uncached" ones (1000 to 1M)
+  // get a box each, and "mixed" is half and half. Boxes are allocated in
+  // list order, which the GC tends to preserve, so this is the best case
+  // for locality; in a long-lived heap they'd be scattered.
+  //
+  // The *BigBoxCache benchmarks run the same code in a JVM with
+  // -XX:AutoBoxCacheMax=1000000, which makes every value here cached (for
+  // 16 MB of Integers allocated at startup).
+  @State(Scope.Thread)
+  public static class Ints {
+    @Param({"cached", "uncached", "mixed"})
+    public String valueRange;
+
+    int[] values;
+    List<Integer> list;
+
+    @Setup
+    public void setup(IteratorPerf perf) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      values = new int[perf.numItems];
+      list = new ArrayList<>(perf.numItems);
+      for (int i = 0; i < perf.numItems; i++) {
+        values[i] = nextValue(random);
+        list.add(values[i]);
+      }
+    }
+
+    int nextValue(ThreadLocalRandom random) {
+      switch (valueRange) {
+        case "cached":
+          return random.nextInt(5, 50);
+        case "uncached":
+          return random.nextInt(1000, 1_000_000);
+        case "mixed":
+          return random.nextBoolean()
+              ? random.nextInt(5, 50)
+              : random.nextInt(1000, 1_000_000);
+        default:
+          throw new IllegalArgumentException(
+              "Unknown valueRange: " + valueRange);
+      }
+    }
+
+    // Needed to prevent the JIT from realizing that summing the list always
+    // returns the same result and thus the whole loop can just be replaced
+    // with a constant!
+    void perturb() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int index = random.nextInt(0, list.size());
+      list.set(index, nextValue(random));
+    }
   }
 
   @Benchmark
-  public int rawForLoopStrings() {
-    perturbStringList();
+  public int rawForLoopStrings(Strings strings) {
+    strings.perturb();
+    List<String> list = strings.list;
     int sum = 0;
-    for (int i = 0; i < strings.size(); i++) {
-      sum += strings.get(i).length();
+    for (int i = 0; i < list.size(); i++) {
+      sum += list.get(i).length();
     }
     return sum;
   }
 
   @Benchmark
-  public int rawForLoopInts() {
-    perturbIntList();
+  public int rawForLoopInts(Ints ints) {
+    ints.perturb();
+    List<Integer> list = ints.list;
     int sum = 0;
-    for (int i = 0; i < ints.size(); i++) {
-      sum += ints.get(i);
+    for (int i = 0; i < list.size(); i++) {
+      sum += list.get(i);
     }
     return sum;
   }
 
   @Benchmark
-  public int forEachLoopStrings(Blackhole blackhole) {
-    perturbStringList();
+  public int forEachLoopStrings(Strings strings, Blackhole blackhole) {
+    strings.perturb();
     int sum = 0;
-    for (String s : strings) {
+    for (String s : strings.list) {
       sum += s.length();
     }
     return sum;
   }
 
   @Benchmark
-  public int forEachLoopInts(Blackhole blackhole) {
-    perturbIntList();
+  public int forEachLoopInts(Ints ints, Blackhole blackhole) {
+    ints.perturb();
     int sum = 0;
-    for (int i : ints) {
+    for (int i : ints.list) {
       sum += i;
     }
     return sum;
   }
 
+  @Benchmark
+  @Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g",
+                                    "-XX:AutoBoxCacheMax=1000000"})
+  public int rawForLoopIntsBigBoxCache(Ints ints) {
+    return rawForLoopInts(ints);
+  }
+
+  @Benchmark
+  @Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g",
+                                    "-XX:AutoBoxCacheMax=1000000"})
+  public int forEachLoopIntsBigBoxCache(Ints ints, Blackhole blackhole) {
+    return forEachLoopInts(ints, blackhole);
+  }
+
+  // The same int sums over primitive lists (io.markovic.jmh.collect) and a
+  // bare int[], to compare against rawForLoopInts/forEachLoopInts on the
+  // boxed list above, up to sizes where the data no longer fits in any
+  // cache.
+  //
+  // The build* benchmarks fill each structure from an int[] and are there
+  // for their footprint: with `-prof gc` (main() adds it),
+  // gc.alloc.rate.norm / numItems is the bytes per element. The presized
+  // ones allocate exactly what they keep; buildIntArrayListByAdd also
+  // includes the garbage left behind by growing.
+  //
+  // Nothing here boxes, so the values don't matter and don't follow
+  // `valueRange`: they're uniform in [0, 1M).
+  @State(Scope.Thread)
+  public static class Primitives {
+    private static final int BOUND = 1_000_000;
+
+    int[] source;
+    int[] array;
+    IntArrayList intList;
+    LongArrayList longList;
+
+    @Setup
+    public void setup(IteratorPerf perf) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      source = new int[perf.numItems];
+      for (int i = 0; i < source.length; i++) {
+        source[i] = random.nextInt(BOUND);
+      }
+      array = source.clone();
+      intList = IntArrayList.of(source);
+      longList = new LongArrayList(source.length);
+      for (int value : source) {
+        longList.add(value);
+      }
+    }
+
+    // Same reason as Ints.perturb() above.
+    void perturb() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int index = random.nextInt(0, source.length);
+      int value = random.nextInt(BOUND);
+      array[index] = value;
+      intList.set(index, value);
+      longList.set(index, value);
+    }
+  }
+
+  @Benchmark
+  public long sumIntArray(Primitives primitives) {
+    primitives.perturb();
+    long sum = 0;
+    for (int value : primitives.array) {
+      sum += value;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long sumIntArrayList(Primitives primitives) {
+    primitives.perturb();
+    return primitives.intList.sum();
+  }
+
+  // Element by element through get(), like callers that can't use sum().
+  @Benchmark
+  public long sumIntArrayListGet(Primitives primitives) {
+    primitives.perturb();
+    IntArrayList intList = primitives.intList;
+    long sum = 0;
+    for (int i = 0; i < intList.size(); i++) {
+      sum += intList.get(i);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int reduceIntArrayList(Primitives primitives) {
+    primitives.perturb();
+    return primitives.intList.reduce(0, Integer::sum);
+  }
+
+  @Benchmark
+  public long sumLongArrayList(Primitives primitives) {
+    primitives.perturb();
+    return primitives.longList.sum();
+  }
+
+  @Benchmark
+  public List<Integer> buildBoxedList(Ints ints) {
+    List<Integer> boxed = new ArrayList<>(numItems);
+    for (int value : ints.values) {
+      boxed.add(value);
+    }
+    return boxed;
+  }
+
+  @Benchmark
+  @Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g",
+                                    "-XX:AutoBoxCacheMax=1000000"})
+  public List<Integer> buildBoxedListBigBoxCache(Ints ints) {
+    return buildBoxedList(ints);
+  }
+
+  @Benchmark
+  public int[] buildIntArray(Primitives primitives) {
+    return primitives.source.clone();
+  }
+
+  @Benchmark
+  public IntArrayList buildIntArrayList(Primitives primitives) {
+    return IntArrayList.of(primitives.source);
+  }
+
+  @Benchmark
+  public IntArrayList buildIntArrayListByAdd(Primitives primitives) {
+    IntArrayList intList = new IntArrayList();
+    for (int value : primitives.source) {
+      intList.add(value);
+    }
+    return intList;
+  }
+
+  @Benchmark
+  public LongArrayList buildLongArrayList(Primitives primitives) {
+    LongArrayList longList = new LongArrayList(numItems);
+    for (int value : primitives.source) {
+      longList.add(value);
+    }
+    return longList;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(IteratorPerf.class.getSimpleName()
+                 + "\\.(rawForLoopInts|forEachLoopInts|sum|reduce|build)")
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    new Runner(opt).run();
+  }
+
   // RESULTS!
   //
   // Benchmark                        (numItems)  Mode  Cnt      Score     Error  Units
@@ -131,4 +349,25 @@ public class IteratorPerf {
   // as you switch to objects like Strings, the overhead of cache misses
   // (since object contents need to be dereferenced) eliminates any benefit
   // for loops might have.
+  //
+  // What to expect from the primitive list benchmarks (no results yet):
+  // sumIntArrayList and sumIntArray should be the same loop (and both get
+  // vectorized), several times faster than rawForLoopInts, which has to
+  // load and unbox a reference per element; they don't run per
+  // `valueRange`, which only matters to boxes. sumIntArrayListGet adds a bounds check per element that
+  // the JIT can usually hoist. For footprint, int[]/IntArrayList take 4 B
+  // per element and LongArrayList 8 B; ArrayList<Integer> takes 4 B per
+  // reference (with compressed oops) plus a 16 B Integer per uncached
+  // value.
+  //
+  // And from the boxing cache ones: with "cached" values the boxed loops
+  // only chase pointers to a few dozen boxes that stay in L1. With
+  // "uncached" ones, buildBoxedList allocates ~5x what buildIntArray does
+  // (20 vs 4 B per element) and from ~100K items on, where the boxes spill
+  // out of L2, the boxed loops fall further behind int[]; "mixed" lands in
+  // between. The *BigBoxCache variants take the allocation away, but the
+  // loop still chases a pointer per element, now to random spots in a
+  // 16 MB cache instead of boxes laid out in list order, so expect them to
+  // be slower to iterate than plain "uncached" (a quick run had them ~3x
+  // slower at 100K items).
 }
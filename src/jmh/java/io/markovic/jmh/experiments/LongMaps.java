@@ -0,0 +1,232 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.collect.LongLongHashMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.profile.LinuxPerfNormProfiler;
+import org.openjdk.jmh.profile.ProfilerException;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// JMHSample_35_Profilers.Maps, for an id-to-offset index: `size` random
+// long ids, each mapped to its position, in a HashMap<Long, Long>, a
+// TreeMap<Long, Long> or an io.markovic.jmh.collect.LongLongHashMap at
+// load factors 0.5, 0.75 (its default) and 0.9.
+//
+// - get: look up a random id that's in the map.
+// - put: overwrite a random id's value.
+// - removeAndPut: remove a random id and put it back, so the size stays
+//   the same; the primitive map shifts entries back on every remove.
+// - build: fill a presized map from scratch. With `-prof gc`,
+//   gc.alloc.rate.norm / `size` is the bytes per entry, boxes included.
+//
+// Every call picks its id from 4096 precomputed ones, so with 10M entries
+// nearly every lookup misses the cache; `-prof perfnorm` (main() adds it
+// if perf is installed) shows how many misses each map takes per op. The
+// heap is fixed at 3 GB so that the boxed maps fit at 10M entries.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+@Fork(value = 2, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class LongMaps {
+  private static final int LOOKUPS = 4096;
+
+  @Param({"primitive-0.5", "primitive-0.75", "primitive-0.9", "hashmap",
+          "treemap"})
+  public String type;
+
+  @Param({"1000", "100000", "10000000"})
+  public int size;
+
+  long[] ids;
+  int[] lookups = new int[LOOKUPS];
+  int next;
+
+  // The few calls we need from every map, so that each benchmark is the
+  // same code for all of them. Only one implementation is loaded per
+  // fork, so these calls stay monomorphic.
+  interface LongMap {
+    long get(long key);
+
+    void put(long key, long value);
+
+    void remove(long key);
+  }
+
+  static final class Primitive implements LongMap {
+    final LongLongHashMap map;
+
+    Primitive(int expectedSize, float loadFactor) {
+      map = new LongLongHashMap(expectedSize, loadFactor);
+    }
+
+    @Override
+    public long get(long key) {
+      return map.getOrDefault(key, -1);
+    }
+
+    @Override
+    public void put(long key, long value) {
+      map.put(key, value);
+    }
+
+    @Override
+    public void remove(long key) {
+      map.remove(key);
+    }
+  }
+
+  static final class Boxed implements LongMap {
+    final Map<Long, Long> map;
+
+    Boxed(Map<Long, Long> map) {
+      this.map = map;
+    }
+
+    @Override
+    public long get(long key) {
+      return map.getOrDefault(key, -1L);
+    }
+
+    @Override
+    public void put(long key, long value) {
+      map.put(key, value);
+    }
+
+    @Override
+    public void remove(long key) {
+      map.remove(key);
+    }
+  }
+
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    ids = new long[size];
+    for (int i = 0; i < size; i++) {
+      ids[i] = random.nextLong();
+    }
+    for (int i = 0; i < LOOKUPS; i++) {
+      lookups[i] = random.nextInt(size);
+    }
+  }
+
+  LongMap newMap() {
+    if (type.startsWith("primitive-")) {
+      return new Primitive(
+          size, Float.parseFloat(type.substring("primitive-".length())));
+    }
+    switch (type) {
+      case "hashmap":
+        // HashMap's own load factor is 0.75.
+        return new Boxed(new HashMap<>((int) (size / 0.75f) + 1));
+      case "treemap":
+        return new Boxed(new TreeMap<>());
+      default:
+        throw new IllegalArgumentException("Unknown type: " + type);
+    }
+  }
+
+  // The filled map, in its own state so that build doesn't keep one
+  // around.
+  @State(Scope.Thread)
+  public static class Filled {
+    LongMap map;
+
+    @Setup
+    public void setup(LongMaps maps) {
+      map = maps.build();
+    }
+  }
+
+  private int next() {
+    return lookups[next++ & (LOOKUPS - 1)];
+  }
+
+  @Benchmark
+  public long get(Filled filled) {
+    return filled.map.get(ids[next()]);
+  }
+
+  @Benchmark
+  public void put(Filled filled) {
+    int i = next();
+    filled.map.put(ids[i], i);
+  }
+
+  @Benchmark
+  public void removeAndPut(Filled filled) {
+    int i = next();
+    filled.map.remove(ids[i]);
+    filled.map.put(ids[i], i);
+  }
+
+  @Benchmark
+  public LongMap build() {
+    LongMap map = newMap();
+    long[] ids = this.ids;
+    for (int i = 0; i < ids.length; i++) {
+      map.put(ids[i], i);
+    }
+    return map;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    ChainedOptionsBuilder opt = new OptionsBuilder()
+        .include(LongMaps.class.getSimpleName())
+        .addProfiler(GCProfiler.class);
+    try {
+      // Throws right away if perf isn't there (e.g. not on Linux).
+      new LinuxPerfNormProfiler("");
+      opt.addProfiler(LinuxPerfNormProfiler.class);
+    } catch (ProfilerException e) {
+      System.err.println("Running without perfnorm: " + e.getMessage());
+    }
+
+    new Runner(opt.build()).run();
+  }
+
+  // What to expect (when run with `-prof gc` and `-prof perfnorm`):
+  //
+  // Bytes per entry from build: HashMap ~87 at 10M (a 32 B node, two 24 B
+  // Longs and its table), TreeMap ~88 (a 40 B entry and the two Longs).
+  // The primitive map takes 16 B per slot, and the table only comes in
+  // powers of two, so what it takes depends on where `size` falls: at 10M
+  // entries 0.5 needs 2^25 slots (~54 B per entry) while 0.75 and 0.9 both
+  // fit in 2^24 (~27 B).
+  //
+  // get and put: at 1000 entries everything is in L1/L2 and the difference
+  // is the code; the primitive map is a multiply, a shift and a load or
+  // two, HashMap boxes the key (24 B/op that escape analysis doesn't
+  // remove here) and calls equals(), TreeMap does ~10 compareTo()s. At
+  // 10M entries it's mostly cache misses: ~1 per get for the primitive
+  // map, 2-3 for HashMap (table, node, key box) and one per tree level for
+  // TreeMap, which is an order of magnitude slower than the others. put
+  // on the boxed maps also allocates the key and value boxes (48 B/op).
+  //
+  // removeAndPut is where load factor matters: the primitive map walks to
+  // the end of the probe run to remove (to shift entries back) and again
+  // to put, and the ids we keep re-adding end up last in their runs. At
+  // 0.5 it's still ahead of HashMap, but at 0.9 (and at 0.75 at 10M) a
+  // quick run had it slower than HashMap. For churn-heavy maps, use a
+  // lower load factor.
+}
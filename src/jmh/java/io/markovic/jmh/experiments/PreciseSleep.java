@@ -0,0 +1,118 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.clock.PreciseSleeper;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// How late do Thread.sleep and parkNanos wake up, and what does
+// PreciseSleeper's spin tail buy (and cost)?
+//
+// SampleTime gives the distribution of how long each sleep actually took;
+// subtract `targetMicros` to get the overshoot. Thread.sleep can only sleep
+// whole millis, so it rounds every target below 1 ms up to 1 ms.
+//
+// The CPU cost of each approach shows up in the AverageTime run as the
+// cpuNanosPerSleep counter: ~0 for a pure park, up to the spin threshold
+// for PreciseSleeper and the full target for pure spinning.
+@BenchmarkMode({Mode.SampleTime, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+@Fork(2)
+public class PreciseSleep {
+  @Param({"10", "100", "1000", "10000"})
+  public long targetMicros;
+
+  long targetNanos;
+  PreciseSleeper calibrated;
+  PreciseSleeper spinOnly;
+
+  // Thread CPU time spent in an iteration, reported per sleep. JMH only
+  // reports these for AverageTime/Throughput.
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class CpuTime {
+    private static final ThreadMXBean THREADS =
+        ManagementFactory.getThreadMXBean();
+
+    private long startCpuNanos;
+    private long sleeps;
+
+    @Setup(Level.Iteration)
+    public void start() {
+      sleeps = 0;
+      startCpuNanos = THREADS.getCurrentThreadCpuTime();
+    }
+
+    void sleptOnce() {
+      sleeps++;
+    }
+
+    public double cpuNanosPerSleep() {
+      // Called by JMH at the end of the iteration.
+      long cpuNanos = THREADS.getCurrentThreadCpuTime() - startCpuNanos;
+      return sleeps == 0 ? 0 : (double) cpuNanos / sleeps;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    targetNanos = TimeUnit.MICROSECONDS.toNanos(targetMicros);
+    calibrated = PreciseSleeper.calibrate();
+    spinOnly = new PreciseSleeper(Long.MAX_VALUE);
+  }
+
+  @Benchmark
+  public void threadSleep(CpuTime cpu) throws InterruptedException {
+    Thread.sleep(targetNanos / 1_000_000, (int) (targetNanos % 1_000_000));
+    cpu.sleptOnce();
+  }
+
+  @Benchmark
+  public void parkNanos(CpuTime cpu) {
+    // Like every caller should, re-park if we wake up early (spuriously).
+    long deadline = System.nanoTime() + targetNanos;
+    long remaining;
+    while ((remaining = deadline - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+    }
+    cpu.sleptOnce();
+  }
+
+  @Benchmark
+  public void preciseSleeper(CpuTime cpu) throws InterruptedException {
+    calibrated.sleepNanos(targetNanos);
+    cpu.sleptOnce();
+  }
+
+  @Benchmark
+  public void spinOnly(CpuTime cpu) throws InterruptedException {
+    spinOnly.sleepNanos(targetNanos);
+    cpu.sleptOnce();
+  }
+
+  // What to expect:
+  //
+  // threadSleep and parkNanos overshoot by the OS timer slack (~50-100 µs
+  // on Linux; see InstantOverhead) at every percentile, plus up to ~1 ms
+  // for threadSleep on sub-millisecond targets. preciseSleeper should be
+  // within a few µs up to p99 (it spins for the calibrated p99 park
+  // overshoot) while burning about that much CPU per sleep; spinOnly is
+  // the accuracy floor and burns a full core.
+}
@@ -0,0 +1,129 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.clock.MonotonicClock;
+import io.markovic.jmh.ratelimit.GcraRateLimiter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// How much does a rate limiter cost on the hot path, and how does that
+// change as more threads hit the same limiter?
+//
+// `permitsPerSecond` picks the regime: at 1M/s most calls get rejected
+// (a read and a compare, no CAS), at 1G/s nearly all get granted and every
+// thread CASes the same word. `stripes` (GCRA only; the synchronized
+// bucket can't be striped) = 1 is a single shared bucket; 16 splits it up
+// so threads (mostly) stop contending.
+//
+// Run main() to sweep from 1 to `max` threads with the GC profiler on; it
+// fails if gcra* allocates.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@Fork(2)
+public class RateLimiterContention {
+  private static final int BURST = 100;
+
+  @Param({"1000000", "1000000000"})
+  public double permitsPerSecond;
+
+  SynchronizedTokenBucket synchronizedBucket;
+
+  // The GCRA limiter, in its own state so that only gcraTryAcquire runs
+  // for every `stripes`.
+  @State(Scope.Benchmark)
+  public static class Gcra {
+    @Param({"1", "16"})
+    public int stripes;
+
+    GcraRateLimiter limiter;
+
+    @Setup
+    public void setup(RateLimiterContention contention) {
+      limiter = new GcraRateLimiter(contention.permitsPerSecond, BURST,
+                                    stripes, MonotonicClock.SYSTEM);
+    }
+  }
+
+  // The textbook token bucket, refilled lazily under a lock. This is the
+  // baseline to beat.
+  static final class SynchronizedTokenBucket {
+    private final double permitsPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    SynchronizedTokenBucket(double permitsPerSecond, int burst) {
+      this.permitsPerNano = permitsPerSecond / 1e9;
+      this.capacity = burst;
+      this.tokens = burst;
+      this.lastRefillNanos = System.nanoTime();
+    }
+
+    synchronized boolean tryAcquire() {
+      long now = System.nanoTime();
+      tokens = Math.min(capacity,
+                        tokens + (now - lastRefillNanos) * permitsPerNano);
+      lastRefillNanos = now;
+      if (tokens < 1) {
+        return false;
+      }
+      tokens -= 1;
+      return true;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    synchronizedBucket = new SynchronizedTokenBucket(permitsPerSecond, BURST);
+  }
+
+  @Benchmark
+  public boolean gcraTryAcquire(Gcra gcra) {
+    return gcra.limiter.tryAcquire();
+  }
+
+  @Benchmark
+  public boolean synchronizedTryAcquire() {
+    return synchronizedBucket.tryAcquire();
+  }
+
+  // The clock read alone, to see how much of the limiter is just that.
+  @Benchmark
+  public long nanoTime() {
+    return System.nanoTime();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(RateLimiterContention.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    AllocationCheck.assertNoAllocation(ThreadSweep.run(opt), "\\.gcra");
+  }
+
+  // What to expect:
+  //
+  // Single-threaded, gcraTryAcquire should cost little more than nanoTime.
+  // With stripes=1 and permits being granted, every grant is a CAS on one
+  // shared cache line, so per-thread throughput drops as threads are added
+  // (but still beats the synchronized bucket, which serializes everything).
+  // When the limit is being hit, rejections don't write anything and scale
+  // almost linearly. stripes=16 keeps scaling in both regimes.
+}
@@ -1,11 +1,26 @@
 package io.markovic.jmh.experiments;
 
+import io.markovic.jmh.collect.CsrMultimap;
+import io.markovic.jmh.collect.MultimapValues;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -17,18 +32,38 @@ import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
 @Warmup(iterations = 5)
 @Measurement(iterations = 5)
 @State(Scope.Thread)
-@Fork(2)
+// 10M keys take ~2.5 GB, plus another ~1 GB for the Csr state or
+// ~2.5 GB for the Skewed one.
+@Fork(value = 2, jvmArgsAppend = "-Xmx8g")
 public class Streams {
-  @Param({"4", "20", "1000"})
+  @Param({"4", "20", "1000", "1000000", "10000000"})
   public int numKeys;
 
+  // The values are drawn from a fixed pool: nothing here reads them, and
+  // a distinct String per value wouldn't fit in the heap at 10M keys.
+  private static final String[] VALUES = new String[1000];
+
+  static {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < VALUES.length; i++) {
+      VALUES[i] = RandomStringUtils.random(random.nextInt(5, 10));
+    }
+  }
+
   private Map<String, List<String>> data = new HashMap<>(numKeys);
 
   @Setup
@@ -37,7 +72,7 @@ public class Streams {
     for (int i = 0; i < numKeys; i++) {
       List<String> list = new ArrayList<>(20);
       for (int j = 0; j < random.nextInt(20, 50); j++) {
-        list.add(RandomStringUtils.random(random.nextInt(5, 10)));
+        list.add(VALUES[random.nextInt(VALUES.length)]);
       }
       data.put(RandomStringUtils.random(10), list);
     }
@@ -60,6 +95,324 @@ public class Streams {
     return sum;
   }
 
+  // The same data as an io.markovic.jmh.collect.CsrMultimap: the keys, the
+  // offsets and the values in three arrays instead of a node, a list and
+  // a list array per key. In its own state so that the benchmarks above
+  // don't pay for building it.
+  @State(Scope.Thread)
+  public static class Csr {
+    CsrMultimap<String, String> multimap;
+
+    @Setup
+    public void setup(Streams streams) {
+      multimap = CsrMultimap.copyOf(streams.data);
+    }
+  }
+
+  @Benchmark
+  public int csrWithStreams(Csr csr) {
+    CsrMultimap<String, String> multimap = csr.multimap;
+    return IntStream.range(0, multimap.keyCount())
+                    .map(multimap::valueCount)
+                    .sum();
+  }
+
+  @Benchmark
+  public int csrWithIterator(Csr csr) {
+    CsrMultimap<String, String> multimap = csr.multimap;
+    int sum = 0;
+    for (int i = 0; i < multimap.keyCount(); i++) {
+      sum += multimap.valueCount(i);
+    }
+    return sum;
+  }
+
+  // What the two above compute, read straight from the last offset.
+  @Benchmark
+  public int csrSize(Csr csr) {
+    return csr.multimap.size();
+  }
+
+  // The same sum split over `parallelism` threads, to find the numKeys
+  // where that starts to pay off:
+  //
+  // - parallelStream: data.values().parallelStream(), run in a
+  //   ForkJoinPool of `parallelism` threads (a parallel stream started
+  //   from inside a pool runs in that pool instead of the common one).
+  // - forkJoinTask: a RecursiveTask that splits the values' Spliterator
+  //   down to ~4 chunks per thread, in the same kind of pool.
+  // - manualThreads: the Spliterator split into one chunk per thread up
+  //   front, each summed on a plain fixed thread pool, and the Futures
+  //   added up.
+  //
+  // All three split a HashMap's values by table buckets, i.e. evenly by
+  // key, which is fine as long as the lists are about the same size.
+  //
+  // Run main() for a speedup table against withIterator at the end.
+  @State(Scope.Benchmark)
+  public static class Pool {
+    @Param({"1", "2", "4", "8", "16"})
+    public int parallelism;
+
+    ForkJoinPool forkJoinPool;
+    ExecutorService threads;
+
+    @Setup
+    public void setup() {
+      forkJoinPool = new ForkJoinPool(parallelism);
+      threads = Executors.newFixedThreadPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+      forkJoinPool.shutdown();
+      threads.shutdown();
+    }
+  }
+
+  @Benchmark
+  public int parallelStream(Pool pool) {
+    return pool.forkJoinPool.submit(
+        () -> data.values()
+                  .parallelStream()
+                  .mapToInt(List::size)
+                  .sum())
+        .join();
+  }
+
+  @Benchmark
+  public int forkJoinTask(Pool pool) {
+    long leafSize = Math.max(1, numKeys / (4L * pool.parallelism));
+    return pool.forkJoinPool.invoke(
+        new SizeSum(data.values().spliterator(), leafSize));
+  }
+
+  @Benchmark
+  public int manualThreads(Pool pool)
+      throws InterruptedException, ExecutionException {
+    List<Spliterator<List<String>>> chunks = new ArrayList<>();
+    chunks.add(data.values().spliterator());
+    // Halve every chunk until there's one per thread, or they won't split.
+    boolean split = true;
+    while (split && chunks.size() < pool.parallelism) {
+      split = false;
+      for (int i = chunks.size() - 1; i >= 0; i--) {
+        Spliterator<List<String>> prefix = chunks.get(i).trySplit();
+        if (prefix != null) {
+          chunks.add(prefix);
+          split = true;
+        }
+      }
+    }
+    List<Future<Integer>> sums = new ArrayList<>(chunks.size());
+    for (Spliterator<List<String>> chunk : chunks) {
+      sums.add(pool.threads.submit(() -> sumSizes(chunk)));
+    }
+    int sum = 0;
+    for (Future<Integer> partial : sums) {
+      sum += partial.get();
+    }
+    return sum;
+  }
+
+  static int sumSizes(Spliterator<List<String>> lists) {
+    int[] sum = new int[1];
+    lists.forEachRemaining(list -> sum[0] += list.size());
+    return sum[0];
+  }
+
+  // ForkJoinTask is Serializable, but these are never serialized.
+  @SuppressWarnings("serial")
+  static final class SizeSum extends RecursiveTask<Integer> {
+    private final Spliterator<List<String>> lists;
+    private final long leafSize;
+
+    SizeSum(Spliterator<List<String>> lists, long leafSize) {
+      this.lists = lists;
+      this.leafSize = leafSize;
+    }
+
+    @Override
+    protected Integer compute() {
+      Spliterator<List<String>> prefix;
+      if (lists.estimateSize() > leafSize
+          && (prefix = lists.trySplit()) != null) {
+        SizeSum left = new SizeSum(prefix, leafSize);
+        left.fork();
+        int right = new SizeSum(lists, leafSize).compute();
+        return right + left.join();
+      }
+      return sumSizes(lists);
+    }
+  }
+
+  // Parallel streams on skewed data. HashMap's spliterator splits by
+  // table buckets, so each chunk gets about as many keys as the others,
+  // however many values they hold. To make that matter, these benchmarks
+  // do work per value (add up the values' lengths) instead of per key.
+  //
+  // `skew` shapes the list sizes, at ~35 values per key on average:
+  // - uniform: 20 to 50 values per key.
+  // - zipf: the i-th key gets 1 / i of the values (a Zipf distribution
+  //   with s = 1), so the first one holds ~1 / ln(numKeys) of them.
+  // - hot: a single key holds half of all values, the others 1 to 34.
+  //
+  // weightedParallelStream goes through io.markovic.jmh.collect
+  // .MultimapValues, which splits by value count instead; taking its
+  // snapshot is part of setup.
+  @State(Scope.Thread)
+  public static class Skewed {
+    private static final int MEAN_VALUES = 35;
+
+    @Param({"uniform", "zipf", "hot"})
+    public String skew;
+
+    Map<String, List<String>> data;
+    MultimapValues<List<String>> values;
+
+    @Setup
+    public void setup(Streams streams) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int numKeys = streams.numKeys;
+      data = new HashMap<>();
+      for (int i = 0; i < numKeys; i++) {
+        int size = listSize(i, numKeys, random);
+        List<String> list = new ArrayList<>(size);
+        for (int j = 0; j < size; j++) {
+          list.add(VALUES[random.nextInt(VALUES.length)]);
+        }
+        data.put(RandomStringUtils.random(10), list);
+      }
+      values = MultimapValues.of(data.values());
+    }
+
+    private int listSize(int i, int numKeys, ThreadLocalRandom random) {
+      switch (skew) {
+        case "uniform":
+          return random.nextInt(20, 51);
+        case "zipf":
+          double harmonic = Math.log(numKeys) + 0.5772;
+          return (int) Math.max(
+              1, Math.round(MEAN_VALUES * numKeys / harmonic / (i + 1)));
+        case "hot":
+          return i == 0
+              ? MEAN_VALUES * numKeys / 2
+              : random.nextInt(1, MEAN_VALUES);
+        default:
+          throw new IllegalArgumentException("Unknown skew: " + skew);
+      }
+    }
+  }
+
+  static long totalLength(List<String> list) {
+    long sum = 0;
+    for (int i = 0; i < list.size(); i++) {
+      sum += list.get(i).length();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long skewedWithIterator(Skewed skewed) {
+    long sum = 0;
+    for (List<String> list : skewed.data.values()) {
+      sum += totalLength(list);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long skewedParallelStream(Skewed skewed, Pool pool) {
+    return pool.forkJoinPool.submit(
+        () -> skewed.data.values()
+                         .parallelStream()
+                         .mapToLong(Streams::totalLength)
+                         .sum())
+        .join();
+  }
+
+  @Benchmark
+  public long weightedParallelStream(Skewed skewed, Pool pool) {
+    return pool.forkJoinPool.submit(
+        () -> skewed.values.parallelStream()
+                           .mapToLong(Streams::totalLength)
+                           .sum())
+        .join();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(Streams.class.getSimpleName()
+                 + "\\.(withIterator|parallelStream|forkJoinTask"
+                 + "|manualThreads|skewed|weighted)")
+        .build();
+
+    printSpeedups(new Runner(opt).run());
+  }
+
+  // Prints every parallel variant's speedup over its sequential baseline
+  // (withIterator, or skewedWithIterator with the same skew) at the same
+  // numKeys, and the smallest numKeys where it's faster, if any.
+  private static void printSpeedups(Collection<RunResult> results) {
+    // skew ("" for the unskewed data) -> numKeys -> score
+    Map<String, Map<Integer, Double>> baselines = new HashMap<>();
+    // "benchmark (parallelism=n[, skew=s])" -> numKeys -> score
+    Map<String, Map<Integer, Double>> variants = new TreeMap<>();
+    Map<String, String> variantSkews = new HashMap<>();
+    Set<Integer> allNumKeys = new TreeSet<>();
+    for (RunResult result : results) {
+      BenchmarkParams params = result.getParams();
+      String benchmark = params.getBenchmark();
+      benchmark = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+      int numKeys = Integer.parseInt(params.getParam("numKeys"));
+      String skew = params.getParam("skew") == null
+          ? "" : params.getParam("skew");
+      double score = result.getPrimaryResult().getScore();
+      allNumKeys.add(numKeys);
+      if (benchmark.equals("withIterator")
+          || benchmark.equals("skewedWithIterator")) {
+        baselines.computeIfAbsent(skew, k -> new TreeMap<>())
+                 .put(numKeys, score);
+      } else {
+        String variant = String.format(
+            "%s (parallelism=%s%s)", benchmark,
+            params.getParam("parallelism"),
+            skew.isEmpty() ? "" : ", skew=" + skew);
+        variants.computeIfAbsent(variant, k -> new TreeMap<>())
+                .put(numKeys, score);
+        variantSkews.put(variant, skew);
+      }
+    }
+
+    System.out.println();
+    System.out.printf("%-56s", "Speedup over the sequential loop");
+    for (int numKeys : allNumKeys) {
+      System.out.printf(" %10d", numKeys);
+    }
+    System.out.printf(" %12s%n", "Crossover");
+    for (Map.Entry<String, Map<Integer, Double>> variant
+        : variants.entrySet()) {
+      Map<Integer, Double> baseline = baselines.getOrDefault(
+          variantSkews.get(variant.getKey()), Collections.emptyMap());
+      System.out.printf("%-56s", variant.getKey());
+      Integer crossover = null;
+      for (int numKeys : allNumKeys) {
+        Double base = baseline.get(numKeys);
+        Double score = variant.getValue().get(numKeys);
+        if (base == null || score == null) {
+          System.out.printf(" %10s", "-");
+          continue;
+        }
+        double speedup = base / score;
+        System.out.printf(" %9.2fx", speedup);
+        if (speedup > 1 && crossover == null) {
+          crossover = numKeys;
+        }
+      }
+      System.out.printf(" %12s%n", crossover == null ? "none" : crossover);
+    }
+  }
+
   // RESULTS! (When run with `-prof gc`)
   //
   //  Benchmark                                             (numKeys)  Mode  Cnt      Score      Error   Units
@@ -104,4 +457,30 @@ public class Streams {
   // call it in a loop though.
   // Perf-wise, the raw for-each loop is clearly ~3x faster, and consistently
   // so. Even as the number of elements increase, the perf advantage remains.
+  //
+  // What to expect from the csr* benchmarks (no results yet): csrWithIterator
+  // reads two adjacent ints per key from one int[], where withIterator
+  // walks the HashMap's table and nodes and dereferences a list per key,
+  // so the gap grows with numKeys and is largest at 1M keys, where the
+  // map's objects are spread over ~300 MB and the offsets take 4 MB.
+  // csrWithStreams still pays the ~240 B of stream setup, which dominates
+  // at 4 keys. csrSize is constant: a couple of ns at any size.
+  //
+  // What to expect from the parallel variants (no results yet): with 4-20
+  // keys they're all far slower than withIterator, which takes tens of
+  // ns, while handing work to another thread and waiting for it takes
+  // microseconds. At 1000 keys (~4 us sequentially) they're about even at
+  // best. From 1M keys on, the sum is bound by cache misses on the map's
+  // nodes and lists, so it scales with threads until memory bandwidth
+  // runs out, well short of `parallelism`x. parallelism above the number
+  // of cores only adds overhead. main()'s crossover column is the first
+  // numKeys where a variant beats withIterator.
+  //
+  // And from the skewed ones: with "uniform" lists, weightedParallelStream
+  // and skewedParallelStream should be about the same. With "zipf" and
+  // "hot", skewedParallelStream's speedup flattens out, since whichever
+  // thread gets the big lists does most of the work while the others
+  // wait. The weighted split puts a hot key in a chunk of its own but
+  // can't split the key itself, so with "hot" neither can get past ~2x
+  // (half of the values are in one list, summed by one thread).
 }
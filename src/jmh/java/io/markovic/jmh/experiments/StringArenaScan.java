@@ -0,0 +1,254 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.collect.StringArena;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Holding lots of short strings: ArrayList<String> (what IteratorPerf and
+// IteratorGC iterate over) vs io.markovic.jmh.collect.StringArena, which
+// packs them all into one UTF-8 byte[].
+//
+// Both hold the same `numStrings` strings of 5 to 10 chars, generated from
+// the same seed: alphanumerics for "ascii", random code points (mostly
+// outside Latin-1, so UTF-16 Strings and 3-4 byte UTF-8) for "unicode".
+// Each structure lives in its own state, so a benchmark only has the one
+// it uses on the heap.
+//
+// - scan*: count the 'e's in every string. The arena version runs over
+//   the raw bytes, which it can do because an ASCII byte never shows up
+//   inside a multi-byte UTF-8 sequence.
+// - lengthSum*: add up String.length() vs StringArena.length(i), which
+//   has to decode non-ASCII strings; arenaByteLengthSum is the O(1) UTF-8
+//   length for comparison.
+// - charAt*/equals*: random lookups, reading one char or comparing
+//   against an equal String (a different instance).
+// - systemGc*: a full GC with each structure live, in ms. ArrayList has
+//   2 * `numStrings` + 1 objects to mark and move, the arena 2 arrays.
+//
+// The heap is fixed at 4 GB so that 10M unicode Strings fit and every
+// full GC works with the same heap size. main() adds the GC profiler.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class StringArenaScan {
+  private static final int LOOKUPS = 1024;
+
+  @Param({"10", "1000", "100000", "10000000"})
+  public int numStrings;
+
+  @Param({"ascii", "unicode"})
+  public String content;
+
+  int[] lookups = new int[LOOKUPS];
+  int next;
+
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    for (int i = 0; i < LOOKUPS; i++) {
+      lookups[i] = random.nextInt(numStrings);
+    }
+  }
+
+  void generate(Consumer<String> sink) {
+    Random random = new Random(42);
+    boolean ascii = content.equals("ascii");
+    if (!ascii && !content.equals("unicode")) {
+      throw new IllegalArgumentException("Unknown content: " + content);
+    }
+    for (int i = 0; i < numStrings; i++) {
+      int count = 5 + random.nextInt(6);
+      sink.accept(RandomStringUtils.random(count, 0, 0, ascii, ascii, null,
+                                           random));
+    }
+  }
+
+  private int next() {
+    return lookups[next++ & (LOOKUPS - 1)];
+  }
+
+  @State(Scope.Thread)
+  public static class Strings {
+    List<String> list;
+    // probes[i] equals list.get(lookups[i]), but isn't the same instance.
+    String[] probes = new String[LOOKUPS];
+
+    @Setup
+    public void setup(StringArenaScan scan) {
+      list = new ArrayList<>(scan.numStrings);
+      scan.generate(list::add);
+      for (int i = 0; i < LOOKUPS; i++) {
+        probes[i] = new String(list.get(scan.lookups[i]));
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Arena {
+    StringArena arena;
+    String[] probes = new String[LOOKUPS];
+
+    @Setup
+    public void setup(StringArenaScan scan) {
+      arena = new StringArena(scan.numStrings, scan.numStrings * 10);
+      scan.generate(arena::add);
+      for (int i = 0; i < LOOKUPS; i++) {
+        probes[i] = arena.get(scan.lookups[i]);
+      }
+    }
+  }
+
+  @Benchmark
+  public int scanList(Strings strings) {
+    List<String> list = strings.list;
+    int count = 0;
+    for (int i = 0; i < list.size(); i++) {
+      String s = list.get(i);
+      for (int j = 0; j < s.length(); j++) {
+        if (s.charAt(j) == 'e') {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int scanArena(Arena arena) {
+    byte[] bytes = arena.arena.array();
+    int end = arena.arena.totalBytes();
+    int count = 0;
+    for (int i = 0; i < end; i++) {
+      if (bytes[i] == 'e') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public long lengthSumList(Strings strings) {
+    List<String> list = strings.list;
+    long sum = 0;
+    for (int i = 0; i < list.size(); i++) {
+      sum += list.get(i).length();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long lengthSumArena(Arena arena) {
+    StringArena strings = arena.arena;
+    long sum = 0;
+    for (int i = 0; i < strings.size(); i++) {
+      sum += strings.length(i);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long arenaByteLengthSum(Arena arena) {
+    StringArena strings = arena.arena;
+    long sum = 0;
+    for (int i = 0; i < strings.size(); i++) {
+      sum += strings.byteLength(i);
+    }
+    return sum;
+  }
+
+  // The last char, so the arena view has to decode the whole string when
+  // it isn't ASCII.
+  @Benchmark
+  public char charAtList(Strings strings) {
+    String s = strings.list.get(next());
+    return s.charAt(s.length() - 1);
+  }
+
+  @Benchmark
+  public char charAtArena(Arena arena) {
+    CharSequence s = arena.arena.view(next());
+    return s.charAt(s.length() - 1);
+  }
+
+  @Benchmark
+  public boolean equalsList(Strings strings) {
+    int i = next & (LOOKUPS - 1);
+    return strings.list.get(next()).equals(strings.probes[i]);
+  }
+
+  @Benchmark
+  public boolean equalsArena(Arena arena) {
+    int i = next & (LOOKUPS - 1);
+    return arena.arena.contentEquals(next(), arena.probes[i]);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int systemGcList(Strings strings) {
+    System.gc();
+    return strings.list.size();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int systemGcArena(Arena arena) {
+    System.gc();
+    return arena.arena.size();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(StringArenaScan.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  // What to expect (when run with `-prof gc`):
+  //
+  // Footprint, with compressed oops: an ASCII string of n chars in the
+  // list takes a 4 B reference, a 24 B String and a 16 + n B byte[]
+  // (rounded up to 8), ~56 B for our 5-10 chars, vs n + 4 B plus a bit in
+  // the arena, ~12 B. Unicode Strings are UTF-16, so 2n B of chars, vs
+  // 3-4 B per char as UTF-8 in the arena: the gap is smaller there.
+  //
+  // scanArena is one sequential loop the JIT can unroll (and maybe
+  // vectorize), while scanList chases two pointers per string; expect the
+  // gap to widen a lot from ~100K strings, once the list's objects no
+  // longer fit in cache. lengthSumArena should match lengthSumList for
+  // ascii (no dereference at all, just offsets), and lose badly for
+  // unicode, where it decodes every byte. Random lookups are a wash for
+  // ascii (the view is escape-analyzed away); for unicode, charAtArena
+  // decodes up to the last char and equalsArena decodes into a String
+  // (~150 B/op), so both are several times slower than the list. Nothing
+  // else should allocate.
+  //
+  // systemGcList grows with `numStrings` (10M strings means 20M objects
+  // to trace and compact), systemGcArena stays flat at the cost of an
+  // empty-ish heap. gc.time in the profiler output shows the same.
+}
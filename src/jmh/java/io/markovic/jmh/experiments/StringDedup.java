@@ -0,0 +1,292 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.collect.StringPool;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Streams and IteratorPerf generate every string at random, but real keys
+// repeat, and every parsed copy of a key is its own String. How much do
+// we save by deduplicating them, and what does it cost?
+//
+// A batch is KEYS strings, each a fresh copy (new String(char[]), like a
+// parser makes) of one of the distinct keys: with a `duplicateRatio` of
+// 90, 10% of KEYS are distinct and every key shows up ~10 times. Keys
+// are 8-24 alphanumerics. The `method` applied to each string is:
+//
+// - "none": keep the copy.
+// - "intern": String.intern().
+// - "pool-strong"/"pool-weak": io.markovic.jmh.collect.StringPool, with
+//   POOL_CAPACITY slots; at 0% and 50% duplicates there are more distinct
+//   keys than that, so some get evicted and deduplicated less.
+//
+// Benchmarks:
+//
+// - lookup: dedup one fresh copy, in ns, for the cost per string. With
+//   `-prof gc`, gc.alloc.rate.norm shows what dedup itself allocates
+//   (the copy, plus the WeakReferences for pool-weak).
+// - retain: parse and dedup a whole batch into an array, in ms. The
+//   pool (and the string table) persist across batches, like they would
+//   for a service that keeps seeing the same keys. gc.time and gc.count
+//   show the GC cost of each method.
+// - retainStringDeduplication: "none", in a JVM with G1's
+//   -XX:+UseStringDeduplication, which shares the byte[]s (not the
+//   Strings) of equal Strings that survive a few GCs, on a background
+//   thread.
+//
+// Every fork uses G1, so that retainStringDeduplication compares with
+// the others on the same collector. main() adds the GC profiler, and then
+// prints the heap each method retains per key, which JMH can't measure
+// for us.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-XX:+UseG1GC"})
+public class StringDedup {
+  private static final int KEYS = 1_000_000;
+  private static final int POOL_CAPACITY = 1 << 17;
+  private static final char[] ALPHABET =
+      "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789"
+          .toCharArray();
+
+  @Param({"0", "50", "90", "99"})
+  public int duplicateRatio;
+
+  // distinct[picks[i]] is the i-th key of a batch.
+  char[][] distinct;
+  int[] picks;
+
+  @Setup
+  public void setup() {
+    if (duplicateRatio < 0 || duplicateRatio > 99) {
+      throw new IllegalArgumentException(
+          "duplicateRatio must be in [0, 99], got: " + duplicateRatio);
+    }
+    SplittableRandom random = new SplittableRandom(42);
+    distinct = new char[KEYS / 100 * (100 - duplicateRatio)][];
+    for (int i = 0; i < distinct.length; i++) {
+      char[] key = new char[8 + random.nextInt(17)];
+      for (int j = 0; j < key.length; j++) {
+        key[j] = ALPHABET[random.nextInt(ALPHABET.length)];
+      }
+      distinct[i] = key;
+    }
+    // Every distinct key at least once, the rest at random, shuffled.
+    picks = new int[KEYS];
+    for (int i = 0; i < KEYS; i++) {
+      picks[i] = i < distinct.length ? i : random.nextInt(distinct.length);
+    }
+    for (int i = KEYS - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = picks[i];
+      picks[i] = picks[j];
+      picks[j] = swap;
+    }
+  }
+
+  String parse(int i) {
+    return new String(distinct[picks[i]]);
+  }
+
+  @State(Scope.Thread)
+  public static class Dedup {
+    @Param({"none", "intern", "pool-strong", "pool-weak"})
+    public String method;
+
+    UnaryOperator<String> dedup;
+    int next;
+
+    @Setup
+    public void setup() {
+      dedup = dedupFor(method);
+    }
+  }
+
+  static UnaryOperator<String> dedupFor(String method) {
+    switch (method) {
+      case "none":
+        return s -> s;
+      case "intern":
+        return String::intern;
+      case "pool-strong":
+        return StringPool.strong(POOL_CAPACITY)::dedup;
+      case "pool-weak":
+        return StringPool.weak(POOL_CAPACITY)::dedup;
+      default:
+        throw new IllegalArgumentException("Unknown method: " + method);
+    }
+  }
+
+  String[] parseBatch(UnaryOperator<String> dedup) {
+    String[] batch = new String[KEYS];
+    for (int i = 0; i < KEYS; i++) {
+      batch[i] = dedup.apply(parse(i));
+    }
+    return batch;
+  }
+
+  @Benchmark
+  public String lookup(Dedup dedup) {
+    int i = dedup.next++;
+    if (dedup.next == KEYS) {
+      dedup.next = 0;
+    }
+    return dedup.dedup.apply(parse(i));
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public String[] retain(Dedup dedup) {
+    return parseBatch(dedup.dedup);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-XX:+UseG1GC",
+                                    "-XX:+UseStringDeduplication"})
+  public String[] retainStringDeduplication() {
+    return parseBatch(s -> s);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(StringDedup.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    new Runner(opt).run();
+    printRetainedHeap();
+  }
+
+  // The heap that holding one batch takes, per method and duplicateRatio:
+  // heap in use after a full GC with the batch (and the pool that made
+  // it) live, minus before. Run main() with -XX:+UseG1GC, and add
+  // -XX:+UseStringDeduplication to get the "none" line with G1's
+  // deduplication.
+  private static void printRetainedHeap() {
+    for (GarbageCollectorMXBean gc
+        : ManagementFactory.getGarbageCollectorMXBeans()) {
+      // SerialGC's full GCs leave some dead objects in place rather than
+      // compact them away (see -XX:MarkSweepDeadRatio), which can make
+      // "after" smaller than "before".
+      if (gc.getName().equals("MarkSweepCompact")) {
+        System.out.println("Not measuring retained heap with SerialGC, "
+            + "run main() with -XX:+UseG1GC");
+        return;
+      }
+    }
+    boolean g1Dedup = ManagementFactory.getRuntimeMXBean().getInputArguments()
+        .contains("-XX:+UseStringDeduplication");
+    int[] ratios = {0, 50, 90, 99};
+    String[] methods = {"none", "intern", "pool-strong", "pool-weak"};
+
+    System.out.println();
+    System.out.printf("%-40s", "Retained heap, bytes per key"
+        + (g1Dedup ? " (G1 dedup)" : ""));
+    for (int ratio : ratios) {
+      System.out.printf(" %6d%%", ratio);
+    }
+    System.out.println();
+    for (String method : methods) {
+      System.out.printf("%-40s", method);
+      for (int ratio : ratios) {
+        StringDedup dedup = new StringDedup();
+        dedup.duplicateRatio = ratio;
+        dedup.setup();
+        System.out.printf(" %7.1f", dedup.retainedPerKey(method, g1Dedup));
+      }
+      System.out.println();
+    }
+  }
+
+  // A method of its own, so that nothing but its result outlives it.
+  private double retainedPerKey(String method, boolean g1Dedup) {
+    long before = usedAfterGc();
+    String[] batch = parseBatch(dedupFor(method));
+    if (g1Dedup) {
+      // G1 only queues Strings for deduplication when they're evacuated
+      // at a certain age (3 young GCs by default), so age them first, then
+      // give the dedup thread a moment.
+      for (int i = 0; i < 16 * 1024; i++) {
+        sink = new byte[64 * 1024];
+      }
+      sleep(1000);
+    }
+    long retained = usedAfterGc() - before;
+    return (double) retained / batch.length;
+  }
+
+  // Keeps the allocations above from being optimized away.
+  static volatile byte[] sink;
+
+  // The heap in use right after a full GC. The pools' collection usage
+  // is what the GC left, while the heap's current usage also counts the
+  // space handed out for allocation since (tens of MB of TLABs).
+  private static long usedAfterGc() {
+    System.gc();
+    long used = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP
+          && pool.getCollectionUsage() != null) {
+        used += pool.getCollectionUsage().getUsed();
+      }
+    }
+    return used;
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // What to expect (when run with `-prof gc`):
+  //
+  // Heap (main()'s table, with G1): a key kept as is costs ~64 B (a 4 B
+  // array slot, a 24 B String, a 16 B header and ~16 B of byte[]),
+  // whatever the duplicates. Deduplicated, it costs the slot plus
+  // 60 B / duplicates: in a quick run intern() got to ~34 / ~10 / ~5
+  // B/key at 50 / 90 / 99%. The pools matched that at 90% and 99%, and
+  // got ~52 B/key at 50%, where 500K distinct keys share 128K slots and
+  // most get evicted before they repeat. -XX:+UseStringDeduplication only
+  // shares the byte[]s, of Strings that have aged, when its thread gets
+  // to them: that run saw "none" drop to 32-46 B/key at 50-90%, and not
+  // at all at 99%, so don't count on it for a batch that just arrived.
+  //
+  // Time (lookup, per key, including the ~40-200 ns of making the copy):
+  // pool-strong added ~90 ns at 99% (the whole pool fits in cache),
+  // ~230 ns at 90% and ~580 ns at 0%, where every key misses and evicts.
+  // intern() was 3-4x slower than that at every ratio (~2.5 us per key at
+  // 0%): it's a JVM-wide table behind a JNI call. pool-weak was about as
+  // fast as pool-strong at 99% and up to 1.5x slower at 0%, where every
+  // miss allocates a 32 B WeakReference (91 vs 59 B/op).
+  //
+  // GC: every method allocates the same copies (lookup's ~59 B/op is the
+  // key being parsed), so the difference is how much survives.
+  // gc.time per iteration in retain was too noisy in a quick run on one
+  // core to rank the methods; run the full forks to compare it.
+}
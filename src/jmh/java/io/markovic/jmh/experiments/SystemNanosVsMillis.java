@@ -4,10 +4,17 @@ import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
@@ -25,6 +32,69 @@ public class SystemNanosVsMillis {
     return System.nanoTime();
   }
 
+  // Everything below checks whether the clock source becomes a bottleneck
+  // when many cores read it at once. Run main() to sweep the two benchmarks
+  // above from 1 to `max` threads in both Throughput and SampleTime modes.
+
+  // The "last seen" pattern (idle timeouts, heartbeats): one thread keeps
+  // publishing the current time to a shared field while the others read the
+  // clock and compare against it. Unlike the benchmarks above, this also
+  // pays for the cache line bouncing between the writer and the readers.
+  // Use `-tg 1,<n>` to change the writer/reader mix.
+  @State(Scope.Group)
+  public static class LastSeen {
+    volatile long nanos;
+    volatile long millis;
+  }
+
+  @Benchmark
+  @Group("lastSeenNanos")
+  @GroupThreads(1)
+  @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void lastSeenNanosWriter(LastSeen lastSeen) {
+    lastSeen.nanos = System.nanoTime();
+  }
+
+  @Benchmark
+  @Group("lastSeenNanos")
+  @GroupThreads(3)
+  @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long lastSeenNanosReader(LastSeen lastSeen) {
+    return System.nanoTime() - lastSeen.nanos;
+  }
+
+  @Benchmark
+  @Group("lastSeenMillis")
+  @GroupThreads(1)
+  @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void lastSeenMillisWriter(LastSeen lastSeen) {
+    lastSeen.millis = System.currentTimeMillis();
+  }
+
+  @Benchmark
+  @Group("lastSeenMillis")
+  @GroupThreads(3)
+  @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long lastSeenMillisReader(LastSeen lastSeen) {
+    return System.currentTimeMillis() - lastSeen.millis;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(SystemNanosVsMillis.class.getSimpleName()
+                 + ".(nanoTime|currentTimeMillis)$")
+        .mode(Mode.Throughput)
+        .mode(Mode.SampleTime)
+        .timeUnit(TimeUnit.MICROSECONDS)
+        .build();
+
+    ThreadSweep.run(opt);
+  }
+
   // RESULTS!
   //
   // SystemNanosVsMillis.currentTimeMillis  avgt   10  20.649 ± 0.042  ns/op
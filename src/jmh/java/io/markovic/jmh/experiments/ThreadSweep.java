@@ -0,0 +1,82 @@
+package io.markovic.jmh.experiments;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Statistics;
+
+// Runs the same benchmarks at 1, 2, 4, ... up to the number of hardware
+// threads (the equivalent of running with `-t 1`, `-t 2` ... `-t max`) and
+// prints a summary table at the end, since JMH itself can't put results
+// from different thread counts side by side.
+//
+// Throughput results are also reported per thread: if that number drops as
+// threads are added, whatever is being called doesn't scale.
+final class ThreadSweep {
+  private ThreadSweep() {}
+
+  static List<Integer> threadCounts() {
+    int maxThreads = Runtime.getRuntime().availableProcessors();
+    List<Integer> counts = new ArrayList<>();
+    for (int threads = 1; threads < maxThreads; threads *= 2) {
+      counts.add(threads);
+    }
+    counts.add(maxThreads);
+    return counts;
+  }
+
+  static List<RunResult> run(Options options) throws RunnerException {
+    List<RunResult> results = new ArrayList<>();
+    for (int threads : threadCounts()) {
+      Options withThreads = new OptionsBuilder()
+          .parent(options)
+          .threads(threads)
+          .build();
+      results.addAll(new Runner(withThreads).run());
+    }
+    printSummary(results);
+    return results;
+  }
+
+  private static void printSummary(List<RunResult> results) {
+    System.out.println();
+    System.out.printf("%-60s %6s %7s %12s %12s %10s %10s %10s  %s%n",
+        "Benchmark", "Mode", "Threads", "Score", "Per thread",
+        "p50", "p99", "p99.9", "Units");
+    for (RunResult result : results) {
+      BenchmarkParams params = result.getParams();
+      Result<?> primary = result.getPrimaryResult();
+      Statistics stats = primary.getStatistics();
+      boolean isThroughput = params.getMode() == Mode.Throughput;
+      boolean isSample = params.getMode() == Mode.SampleTime;
+      System.out.printf("%-60s %6s %7d %12.3f %12s %10s %10s %10s  %s%n",
+          params.getBenchmark() + paramsSuffix(params),
+          params.getMode().shortLabel(),
+          params.getThreads(),
+          primary.getScore(),
+          isThroughput
+              ? String.format("%.3f", primary.getScore() / params.getThreads())
+              : "",
+          isSample ? String.format("%.3f", stats.getPercentile(50)) : "",
+          isSample ? String.format("%.3f", stats.getPercentile(99)) : "",
+          isSample ? String.format("%.3f", stats.getPercentile(99.9)) : "",
+          primary.getScoreUnit());
+    }
+  }
+
+  private static String paramsSuffix(BenchmarkParams params) {
+    StringBuilder suffix = new StringBuilder();
+    for (String key : params.getParamsKeys()) {
+      suffix.append(suffix.length() == 0 ? " (" : ", ")
+            .append(key).append('=').append(params.getParam(key));
+    }
+    return suffix.length() == 0 ? "" : suffix.append(')').toString();
+  }
+}
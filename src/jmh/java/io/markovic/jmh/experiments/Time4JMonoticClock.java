@@ -8,12 +8,17 @@ import net.time4j.TemporalType;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
@@ -48,6 +53,63 @@ public class Time4JMonoticClock {
     return systemClock.millis();
   }
 
+  // Same multi-threaded setup as in SystemNanosVsMillis: run main() to sweep
+  // the benchmarks above from 1 to `max` threads, and the groups below pit
+  // one thread publishing the time against readers comparing against it.
+  // Use `-tg 1,<n>` to change the writer/reader mix.
+  @State(Scope.Group)
+  public static class LastSeen {
+    volatile long millis;
+  }
+
+  @Benchmark
+  @Group("time4jLastSeen")
+  @GroupThreads(1)
+  @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void time4jLastSeenWriter(LastSeen lastSeen) {
+    lastSeen.millis = time4JClock.millis();
+  }
+
+  @Benchmark
+  @Group("time4jLastSeen")
+  @GroupThreads(3)
+  @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long time4jLastSeenReader(LastSeen lastSeen) {
+    return time4JClock.millis() - lastSeen.millis;
+  }
+
+  @Benchmark
+  @Group("systemLastSeen")
+  @GroupThreads(1)
+  @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void systemLastSeenWriter(LastSeen lastSeen) {
+    lastSeen.millis = systemClock.millis();
+  }
+
+  @Benchmark
+  @Group("systemLastSeen")
+  @GroupThreads(3)
+  @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long systemLastSeenReader(LastSeen lastSeen) {
+    return systemClock.millis() - lastSeen.millis;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(Time4JMonoticClock.class.getSimpleName()
+                 + ".(time4j|system)Clock(WithInstant|RawMillis)$")
+        .mode(Mode.Throughput)
+        .mode(Mode.SampleTime)
+        .timeUnit(TimeUnit.MICROSECONDS)
+        .build();
+
+    ThreadSweep.run(opt);
+  }
+
   // GC RESULTS! (When run with `-prof gc`)
   //
   // Benchmark                                                                   Mode  Cnt    Score    Error   Units
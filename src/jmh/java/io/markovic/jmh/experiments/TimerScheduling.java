@@ -0,0 +1,182 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.timer.TimerWheel;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Compares io.markovic.jmh.timer.TimerWheel with ScheduledThreadPoolExecutor
+// and DelayQueue for the "millions of timeouts, most never fire" workload.
+//
+// Each structure is pre-filled with `pendingTimers` timers 1-2 hours out
+// (the background of outstanding request timeouts), then we measure:
+//   - *ScheduleCancel: schedule a 30s timeout and cancel it right away,
+//     which is what happens to almost every timeout. The pending count
+//     stays constant.
+//   - *ScheduleExpire: schedule a timer that's already due and make the
+//     structure hand it back.
+//
+// Run this with `-prof gc` to see allocation per timer; the wheel should be
+// at ≈ 0 B/op since timers are rows in primitive arrays. 10M pending timers
+// need a big heap for the executor and queue, hence the -Xmx below.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx6g"})
+public class TimerScheduling {
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+  private static final long PENDING_NANOS = TimeUnit.HOURS.toNanos(1);
+  private static final Runnable NOOP = () -> {};
+  private static final long EXPIRING = -1;
+
+  @Param({"1000", "100000", "10000000"})
+  public int pendingTimers;
+
+  TimerWheel wheel;
+  // The wheel runs off a synthetic clock that moves exactly one tick per
+  // *ScheduleExpire call so every call does the same amount of work. The
+  // deadlines are still plain nanoTime-style longs. That clock passes the
+  // 1-2 hours of the background timers after a few million calls, so each
+  // one that fires is rescheduled 1-2 hours out, to keep pendingTimers
+  // pending.
+  long wheelNow;
+  long wheelFired;
+
+  ScheduledThreadPoolExecutor executor;
+  DelayQueue<Timeout> delayQueue;
+
+  static final class Timeout implements Delayed {
+    final long deadlineNanos;
+
+    Timeout(long deadlineNanos) {
+      this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(deadlineNanos - System.nanoTime(),
+                          TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(deadlineNanos, ((Timeout) other).deadlineNanos);
+    }
+  }
+
+  private static long pendingDelayNanos() {
+    return PENDING_NANOS + ThreadLocalRandom.current().nextLong(PENDING_NANOS);
+  }
+
+  @Setup
+  public void setup() {
+    wheelNow = System.nanoTime();
+    wheel = new TimerWheel(TICK_NANOS, wheelNow, pendingTimers,
+                           this::wheelExpired);
+
+    executor = new ScheduledThreadPoolExecutor(1);
+    // Without this, cancelled tasks stay in the queue until their deadline
+    // and the "pending" count grows without bound.
+    executor.setRemoveOnCancelPolicy(true);
+
+    delayQueue = new DelayQueue<>();
+
+    long now = System.nanoTime();
+    for (int i = 0; i < pendingTimers; i++) {
+      long delayNanos = pendingDelayNanos();
+      wheel.schedule(wheelNow + delayNanos, i);
+      executor.schedule(NOOP, delayNanos, TimeUnit.NANOSECONDS);
+      delayQueue.add(new Timeout(now + delayNanos));
+    }
+  }
+
+  // Background timers have payloads 0 .. pendingTimers - 1, the ones we
+  // measure EXPIRING.
+  private void wheelExpired(long payload) {
+    wheelFired++;
+    if (payload != EXPIRING) {
+      wheel.schedule(wheelNow + pendingDelayNanos(), payload);
+    }
+  }
+
+  @TearDown
+  public void teardown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public boolean wheelScheduleCancel() {
+    long handle = wheel.schedule(wheelNow + TIMEOUT_NANOS, 0);
+    return wheel.cancel(handle);
+  }
+
+  @Benchmark
+  public boolean executorScheduleCancel() {
+    ScheduledFuture<?> future =
+        executor.schedule(NOOP, TIMEOUT_NANOS, TimeUnit.NANOSECONDS);
+    return future.cancel(false);
+  }
+
+  // DelayQueue (PriorityQueue underneath) removes by linear search over
+  // its heap array. Here the 30s timeout is always earlier than the 1-2h
+  // background timers so it sits at the root and is found immediately;
+  // cancelling a timeout that isn't the earliest one costs O(n).
+  @Benchmark
+  public boolean delayQueueScheduleCancel() {
+    Timeout timeout = new Timeout(System.nanoTime() + TIMEOUT_NANOS);
+    delayQueue.add(timeout);
+    return delayQueue.remove(timeout);
+  }
+
+  @Benchmark
+  public int wheelScheduleExpire() {
+    wheel.schedule(wheelNow, EXPIRING);
+    wheelNow += TICK_NANOS;
+    return wheel.expire(wheelNow);
+  }
+
+  // The executor runs timers on its own thread, so the only way to see one
+  // expire is to wait for it; this includes a thread hand-off that the
+  // other two don't pay.
+  @Benchmark
+  public Object executorScheduleExpire()
+      throws ExecutionException, InterruptedException {
+    return executor.schedule(NOOP, 0, TimeUnit.NANOSECONDS).get();
+  }
+
+  @Benchmark
+  public Timeout delayQueueScheduleExpire() {
+    delayQueue.add(new Timeout(System.nanoTime()));
+    return delayQueue.poll();
+  }
+
+  // What to expect (when run with `-prof gc`):
+  //
+  // The wheel's schedule/cancel/expire are O(1) and allocation-free at any
+  // pendingTimers. wheelScheduleExpire also pays for the background timers
+  // that come due and get rescheduled: each does once per ~1.5 hours of
+  // ticks, so pendingTimers / 5.4M of them per call on average (~2 at
+  // 10M). The executor allocates a ScheduledFutureTask (plus a Callable
+  // adapter) per timer and pays O(log n) in its heap for both schedule
+  // and cancel. The DelayQueue allocates the element itself and pays
+  // O(log n) per operation (see above for its cancel).
+}
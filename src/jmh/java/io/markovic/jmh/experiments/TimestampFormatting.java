@@ -0,0 +1,113 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.format.IsoTimestampFormatter;
+import java.nio.CharBuffer;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import net.time4j.Moment;
+import net.time4j.scale.TimeScale;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Formatting a timestamp per log line: DateTimeFormatter.ISO_INSTANT and
+// Time4J vs io.markovic.jmh.format.IsoTimestampFormatter.
+//
+// Every call formats a different timestamp, `millisStep` after the previous
+// one. With a step of 1 ms, nearly every call hits the formatter's cached
+// per-second prefix (like a busy log); with 1001 ms, every call misses.
+//
+// Time4J's pattern-based ChronoFormatter lives in time4j-i18n, which we
+// don't depend on, so Moment.toString() (its built-in ISO output, with
+// nano precision and a comma) stands in for it.
+//
+// You MUST run this with `-prof GC` on the command line to see GC
+// statistics.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+@Fork(2)
+public class TimestampFormatting {
+  @Param({"1", "1001"})
+  public long millisStep;
+
+  long millis;
+  StringBuilder stringBuilder;
+  IsoTimestampFormatter formatter;
+  byte[] bytes;
+  CharBuffer charBuffer;
+
+  @Setup
+  public void setup() {
+    millis = System.currentTimeMillis();
+    stringBuilder = new StringBuilder(IsoTimestampFormatter.MAX_LENGTH);
+    formatter = new IsoTimestampFormatter();
+    bytes = new byte[IsoTimestampFormatter.MAX_LENGTH];
+    charBuffer = CharBuffer.allocate(IsoTimestampFormatter.MAX_LENGTH);
+  }
+
+  private long nextMillis() {
+    millis += millisStep;
+    return millis;
+  }
+
+  @Benchmark
+  public String isoInstantFormat() {
+    return DateTimeFormatter.ISO_INSTANT.format(
+        Instant.ofEpochMilli(nextMillis()));
+  }
+
+  // Reuses the output buffer, so only the formatter's own garbage is left.
+  @Benchmark
+  public StringBuilder isoInstantFormatTo() {
+    stringBuilder.setLength(0);
+    DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(nextMillis()),
+                                           stringBuilder);
+    return stringBuilder;
+  }
+
+  @Benchmark
+  public String time4jMomentToString() {
+    long millis = nextMillis();
+    return Moment.of(Math.floorDiv(millis, 1000L),
+                     (int) Math.floorMod(millis, 1000L) * 1_000_000,
+                     TimeScale.POSIX).toString();
+  }
+
+  @Benchmark
+  public int formatterBytes() {
+    return formatter.format(nextMillis(), bytes, 0);
+  }
+
+  @Benchmark
+  public CharBuffer formatterCharBuffer() {
+    charBuffer.clear();
+    formatter.format(nextMillis(), charBuffer);
+    return charBuffer;
+  }
+
+  // What most callers would do; adds the ThreadLocal lookup.
+  @Benchmark
+  public int formatterForCurrentThread() {
+    return IsoTimestampFormatter.forCurrentThread()
+                                .format(nextMillis(), bytes, 0);
+  }
+
+  // What to expect (when run with `-prof gc`):
+  //
+  // The ISO_INSTANT and Time4J versions allocate on every call (the
+  // Instant/Moment, the formatter's parse context and the String) no
+  // matter the step. The formatter* versions show ≈ 0 B/op for both steps;
+  // millisStep=1001 shows what the prefix cache saves.
+}
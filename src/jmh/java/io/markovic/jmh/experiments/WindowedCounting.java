@@ -0,0 +1,131 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.metrics.WindowedCounter;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Counting events for "requests per second/minute/hour" metrics: what does
+// io.markovic.jmh.metrics.WindowedCounter cost to increment and to query,
+// compared to what we do today (queueing a timestamp per event and
+// evicting the old ones)?
+//
+// The counter runs on System.currentTimeMillis() (see SystemNanosVsMillis
+// for what that costs), split into 20 buckets for every `windowMillis`;
+// with a 1 s window the slots roll over every 50 ms, so rollover is part
+// of what's measured. `stripes` = 1 puts every thread on the same slots.
+//
+// The queue baseline only runs with a 1 s window: at these rates a longer
+// one would hold billions of timestamps. Its sum is the queue's size(),
+// which is O(n) for a ConcurrentLinkedQueue.
+//
+// Run main() to sweep from 1 to `max` threads with the GC profiler on; it
+// fails if counter* allocates.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class WindowedCounting {
+  private static final int BUCKETS = 20;
+
+  @State(Scope.Benchmark)
+  public static class Counter {
+    @Param({"1000", "60000", "3600000"})
+    public long windowMillis;
+
+    @Param({"1", "16"})
+    public int stripes;
+
+    WindowedCounter counter;
+
+    @Setup
+    public void setup() {
+      counter = new WindowedCounter(windowMillis, BUCKETS, stripes,
+                                    System::currentTimeMillis);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class TimestampQueue {
+    static final long WINDOW_MILLIS = 1000;
+
+    final ConcurrentLinkedQueue<Long> timestamps =
+        new ConcurrentLinkedQueue<>();
+
+    void evict(long now) {
+      Long oldest;
+      while ((oldest = timestamps.peek()) != null
+             && oldest <= now - WINDOW_MILLIS) {
+        timestamps.poll();
+      }
+    }
+  }
+
+  @Benchmark
+  public void counterIncrement(Counter counter) {
+    counter.counter.increment();
+  }
+
+  @Benchmark
+  public long counterSum(Counter counter) {
+    return counter.counter.sum();
+  }
+
+  @Benchmark
+  public void queueIncrement(TimestampQueue queue) {
+    long now = System.currentTimeMillis();
+    queue.timestamps.add(now);
+    queue.evict(now);
+  }
+
+  // On its own, a queue sum would always see an empty queue, so the sums
+  // below also count an event: this is "record a request and report the
+  // current rate", with the window holding everything recorded in the last
+  // second.
+  @Benchmark
+  public long counterIncrementAndSum(Counter counter) {
+    counter.counter.increment();
+    return counter.counter.sum();
+  }
+
+  @Benchmark
+  public int queueIncrementAndSum(TimestampQueue queue) {
+    queueIncrement(queue);
+    return queue.timestamps.size();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(WindowedCounting.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    AllocationCheck.assertNoAllocation(ThreadSweep.run(opt), "\\.counter");
+  }
+
+  // What to expect (when run with `-prof gc`):
+  //
+  // Single-threaded, counterIncrement is the clock read plus a CAS, and
+  // doesn't depend on the window. With stripes=1 every thread CASes the
+  // same slot, so per-thread throughput drops as threads are added; with
+  // stripes=16 it should stay roughly flat. counterSum reads
+  // 20 * `stripes` slots no matter how many events were counted, so it's
+  // cheaper with fewer stripes. The queue allocates a node and a Long per
+  // event (~40-50 B/op), and queueIncrementAndSum walks every event of the
+  // last second, so it gets slower the faster events come in.
+}
@@ -0,0 +1,140 @@
+package io.markovic.jmh.experiments;
+
+import io.markovic.jmh.zone.ZoneOffsetCache;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Per-request timezone rendering: what's a user's UTC offset right now?
+// ZonedDateTime.ofInstant and ZoneRules.getOffset vs
+// io.markovic.jmh.zone.ZoneOffsetCache.
+//
+// Every call looks up a random instant between 2000 and 2040 in one of
+// `zones` distinct zones (picked at random per call, like requests from
+// different users), so with 400 zones the lookup tables no longer all fit
+// in L1/L2. "America/New_York" is always among them, and is the only one
+// for zones=1.
+//
+// cacheOffset holds a cache per zone (what a per-user object would keep);
+// cacheForZone goes through the shared ZoneOffsetCache.forZone map, for
+// callers that only have a ZoneId.
+//
+// You MUST run this with `-prof GC` on the command line to see GC
+// statistics; main() does, and fails if the cache* benchmarks allocate.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+@Fork(2)
+public class ZoneOffsetLookup {
+  private static final int LOOKUPS = 4096;
+
+  @Param({"1", "10", "400"})
+  public int zones;
+
+  ZoneId[] zoneIds;
+  ZoneOffsetCache[] caches;
+  long[] millis = new long[LOOKUPS];
+  int[] zoneIndexes = new int[LOOKUPS];
+  int next;
+
+  @Setup
+  public void setup() {
+    List<String> ids = new ArrayList<>(ZoneId.getAvailableZoneIds());
+    Collections.sort(ids);
+    ids.remove("America/New_York");
+    Collections.shuffle(ids, new Random(42));
+    ids.add(0, "America/New_York");
+
+    zoneIds = new ZoneId[zones];
+    caches = new ZoneOffsetCache[zones];
+    for (int i = 0; i < zones; i++) {
+      zoneIds[i] = ZoneId.of(ids.get(i));
+      caches[i] = ZoneOffsetCache.forZone(zoneIds[i]);
+    }
+
+    SplittableRandom random = new SplittableRandom(42);
+    long min = Instant.parse("2000-01-01T00:00:00Z").toEpochMilli();
+    long max = Instant.parse("2040-01-01T00:00:00Z").toEpochMilli();
+    for (int i = 0; i < LOOKUPS; i++) {
+      millis[i] = random.nextLong(min, max);
+      zoneIndexes[i] = random.nextInt(zones);
+    }
+  }
+
+  private int next() {
+    return next++ & (LOOKUPS - 1);
+  }
+
+  @Benchmark
+  public ZoneOffset zonedDateTimeOfInstant() {
+    int i = next();
+    return ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis[i]),
+                                   zoneIds[zoneIndexes[i]])
+                        .getOffset();
+  }
+
+  // What our rendering code does today.
+  @Benchmark
+  public ZoneOffset rulesGetOffset() {
+    int i = next();
+    return zoneIds[zoneIndexes[i]].getRules()
+                                  .getOffset(Instant.ofEpochMilli(millis[i]));
+  }
+
+  @Benchmark
+  public ZoneOffset cacheOffset() {
+    int i = next();
+    return caches[zoneIndexes[i]].offset(millis[i]);
+  }
+
+  @Benchmark
+  public ZoneOffset cacheForZone() {
+    int i = next();
+    return ZoneOffsetCache.forZone(zoneIds[zoneIndexes[i]]).offset(millis[i]);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(ZoneOffsetLookup.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    AllocationCheck.assertNoAllocation(new Runner(opt).run(), "\\.cache");
+  }
+
+  // What to expect (when run with `-prof gc`):
+  //
+  // zonedDateTimeOfInstant and rulesGetOffset allocate at least the
+  // Instant (plus the ZonedDateTime and its LocalDateTime for the former)
+  // and binary-search the zone's transitions; past the last explicit
+  // transition (~2037 for most zones) ZoneRules also goes through its
+  // per-year cache. The cache* versions should show ≈ 0 B/op and a few ns
+  // per lookup with 1 or 10 zones; with 400 zones all versions get slower
+  // from cache misses on the per-zone tables, but the cache still does a
+  // single dependent load where ZoneRules does a search.
+}
@@ -0,0 +1,174 @@
+package io.markovic.jmh.format;
+
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formats epoch millis as ISO-8601 UTC timestamps, exactly like
+ * {@code DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(millis))}
+ * (e.g. {@code 2019-11-25T13:45:12.345Z}, with the fraction left out when
+ * it's zero), straight into a caller-supplied {@code byte[]} or
+ * {@link CharBuffer}.
+ *
+ * <p>The {@code yyyy-MM-ddTHH:mm:ss} prefix only changes once a second, so
+ * it's cached and most calls just copy it and append the millis. Nothing
+ * allocates, except for the rare timestamp outside of years 0000-9999
+ * (which ISO_INSTANT prints with a sign), where we fall back to
+ * ISO_INSTANT itself.
+ *
+ * <p>Instances are NOT thread-safe because of the cache; confine each one
+ * to a thread, e.g. with {@link #forCurrentThread()}.
+ */
+public final class IsoTimestampFormatter {
+  /** The longest timestamp in years 0000-9999. */
+  public static final int MAX_LENGTH = 24;
+  /**
+   * The longest timestamp of any epoch millis, e.g.
+   * {@code +292278994-08-17T07:12:55.807Z}.
+   */
+  public static final int MAX_LENGTH_ANY_YEAR = 30;
+
+  private static final int PREFIX_LENGTH = 19;
+  private static final long SECONDS_PER_DAY = 86_400;
+  // 0000-01-01T00:00:00Z and 10000-01-01T00:00:00Z.
+  private static final long MIN_FAST_SECOND = -62_167_219_200L;
+  private static final long MAX_FAST_SECOND = 253_402_300_800L;
+
+  private static final ThreadLocal<IsoTimestampFormatter> PER_THREAD =
+      ThreadLocal.withInitial(IsoTimestampFormatter::new);
+
+  private final byte[] prefix = new byte[PREFIX_LENGTH];
+  private long cachedSecond = Long.MIN_VALUE;
+
+  /** This thread's formatter; don't hand it to other threads. */
+  public static IsoTimestampFormatter forCurrentThread() {
+    return PER_THREAD.get();
+  }
+
+  /**
+   * Writes the timestamp as ASCII into {@code dst} starting at
+   * {@code offset} and returns the offset just past the last byte written.
+   * {@code dst} needs room for {@link #MAX_LENGTH} bytes, or up to
+   * {@link #MAX_LENGTH_ANY_YEAR} for years outside 0000-9999; if it has
+   * less, this throws {@code IndexOutOfBoundsException} and writes
+   * nothing.
+   */
+  public int format(long epochMillis, byte[] dst, int offset) {
+    long second = Math.floorDiv(epochMillis, 1000L);
+    int millis = (int) Math.floorMod(epochMillis, 1000L);
+    if (second < MIN_FAST_SECOND || second >= MAX_FAST_SECOND) {
+      return formatSlowly(epochMillis, dst, offset);
+    }
+    if (dst.length - offset < MAX_LENGTH) {
+      throw new IndexOutOfBoundsException(
+          "Need " + MAX_LENGTH + " bytes from offset " + offset
+          + ", buffer length is " + dst.length);
+    }
+    if (second != cachedSecond) {
+      updatePrefix(second);
+    }
+
+    System.arraycopy(prefix, 0, dst, offset, PREFIX_LENGTH);
+    int pos = offset + PREFIX_LENGTH;
+    if (millis != 0) {
+      dst[pos++] = '.';
+      dst[pos++] = (byte) ('0' + millis / 100);
+      dst[pos++] = (byte) ('0' + millis / 10 % 10);
+      dst[pos++] = (byte) ('0' + millis % 10);
+    }
+    dst[pos++] = 'Z';
+    return pos;
+  }
+
+  /**
+   * Same as {@link #format(long, byte[], int)}, but into a CharBuffer, at
+   * its position. If the timestamp doesn't fit in what remains, this
+   * throws {@code BufferOverflowException} and writes nothing.
+   */
+  public void format(long epochMillis, CharBuffer dst) {
+    long second = Math.floorDiv(epochMillis, 1000L);
+    int millis = (int) Math.floorMod(epochMillis, 1000L);
+    if (second < MIN_FAST_SECOND || second >= MAX_FAST_SECOND) {
+      // put(String) checks the room for the whole string first.
+      dst.put(slowly(epochMillis));
+      return;
+    }
+    if (dst.remaining() < (millis != 0 ? MAX_LENGTH : MAX_LENGTH - 4)) {
+      throw new BufferOverflowException();
+    }
+    if (second != cachedSecond) {
+      updatePrefix(second);
+    }
+
+    for (byte b : prefix) {
+      dst.put((char) b);
+    }
+    if (millis != 0) {
+      dst.put('.');
+      dst.put((char) ('0' + millis / 100));
+      dst.put((char) ('0' + millis / 10 % 10));
+      dst.put((char) ('0' + millis % 10));
+    }
+    dst.put('Z');
+  }
+
+  private void updatePrefix(long second) {
+    long days = Math.floorDiv(second, SECONDS_PER_DAY);
+    int secondOfDay = (int) Math.floorMod(second, SECONDS_PER_DAY);
+
+    // Days since the epoch to year/month/day in the proleptic Gregorian
+    // calendar, without going through LocalDate. This is Howard Hinnant's
+    // civil_from_days:
+    // https://howardhinnant.github.io/date_algorithms.html#civil_from_days
+    long shifted = days + 719_468;
+    long era = Math.floorDiv(shifted, 146_097);
+    long dayOfEra = shifted - era * 146_097;
+    long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524
+                      - dayOfEra / 146_096) / 365;
+    long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4
+                                 - yearOfEra / 100);
+    long monthIndex = (5 * dayOfYear + 2) / 153;
+    int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+    int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+    int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+    writeDigits(year, 4, 0);
+    prefix[4] = '-';
+    writeDigits(month, 2, 5);
+    prefix[7] = '-';
+    writeDigits(day, 2, 8);
+    prefix[10] = 'T';
+    writeDigits(secondOfDay / 3600, 2, 11);
+    prefix[13] = ':';
+    writeDigits(secondOfDay / 60 % 60, 2, 14);
+    prefix[16] = ':';
+    writeDigits(secondOfDay % 60, 2, 17);
+    cachedSecond = second;
+  }
+
+  private void writeDigits(int value, int width, int pos) {
+    for (int i = pos + width - 1; i >= pos; i--) {
+      prefix[i] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+
+  private static int formatSlowly(long epochMillis, byte[] dst, int offset) {
+    byte[] bytes = slowly(epochMillis).getBytes(StandardCharsets.US_ASCII);
+    if (dst.length - offset < bytes.length) {
+      throw new IndexOutOfBoundsException(
+          "Need " + bytes.length + " bytes from offset " + offset
+          + ", buffer length is " + dst.length);
+    }
+    System.arraycopy(bytes, 0, dst, offset, bytes.length);
+    return offset + bytes.length;
+  }
+
+  private static String slowly(long epochMillis) {
+    return DateTimeFormatter.ISO_INSTANT.format(
+        Instant.ofEpochMilli(epochMillis));
+  }
+}
@@ -0,0 +1,238 @@
+package io.markovic.jmh.metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A concurrent, allocation-free histogram of non-negative {@code long}s
+ * (typically latencies in nanos), bucketed log-linearly like HdrHistogram:
+ * every power of two is split into the same number of linear sub-buckets,
+ * so the relative error is bounded everywhere in the range.
+ *
+ * <p>With {@code precisionBits} = p, values below 2^p are recorded exactly
+ * and everything else lands in a bucket at most 1/2^(p-1) of its value wide
+ * (p = 6 means ≤ 3.2% error with ~1.9K buckets covering all of
+ * {@code long}).
+ *
+ * <p>Recording is an atomic add into one of several striped count arrays
+ * (picked by thread), so threads don't fight over the same cache lines.
+ * {@link #snapshot()} sums the stripes without blocking recorders; the
+ * result is not a point-in-time view across buckets, but no recorded value
+ * is ever lost or counted twice.
+ */
+public final class LatencyHistogram {
+  private static final VarHandle COUNTS =
+      MethodHandles.arrayElementVarHandle(long[].class);
+
+  private final int precisionBits;
+  private final int stripeMask;
+  private final long[][] stripes;
+
+  public LatencyHistogram(int precisionBits, int stripes) {
+    if (precisionBits < 1 || precisionBits > 16) {
+      throw new IllegalArgumentException(
+          "precisionBits must be in [1, 16], got: " + precisionBits);
+    }
+    if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+      throw new IllegalArgumentException(
+          "stripes must be a power of two, got: " + stripes);
+    }
+    this.precisionBits = precisionBits;
+    this.stripeMask = stripes - 1;
+    this.stripes = new long[stripes][bucketCount(precisionBits)];
+  }
+
+  /** One stripe per hardware thread (rounded up to a power of two). */
+  public LatencyHistogram(int precisionBits) {
+    this(precisionBits, Integer.highestOneBit(
+        Runtime.getRuntime().availableProcessors() * 2 - 1));
+  }
+
+  public int precisionBits() {
+    return precisionBits;
+  }
+
+  public int bucketCount() {
+    return stripes[0].length;
+  }
+
+  /** Negative values are recorded as 0. */
+  public void record(long value) {
+    COUNTS.getAndAdd(stripe(), bucketIndex(Math.max(0, value), precisionBits),
+                     1L);
+  }
+
+  public void record(long value, long count) {
+    COUNTS.getAndAdd(stripe(), bucketIndex(Math.max(0, value), precisionBits),
+                     count);
+  }
+
+  /** Sums all stripes into a new snapshot. */
+  public Snapshot snapshot() {
+    Snapshot snapshot = new Snapshot(precisionBits);
+    snapshotInto(snapshot);
+    return snapshot;
+  }
+
+  /**
+   * Same as {@link #snapshot()} but reuses {@code into} (which must have
+   * the same precision), so taking periodic snapshots doesn't allocate.
+   */
+  public void snapshotInto(Snapshot into) {
+    collect(into, false);
+  }
+
+  /**
+   * Moves everything recorded so far into {@code into} and zeroes this
+   * histogram, for interval (e.g. per-second) percentiles. Values recorded
+   * concurrently end up in either this interval or the next one, never
+   * both or neither.
+   */
+  public void snapshotAndResetInto(Snapshot into) {
+    collect(into, true);
+  }
+
+  private void collect(Snapshot into, boolean reset) {
+    if (into.precisionBits != precisionBits) {
+      throw new IllegalArgumentException(
+          "Snapshot precision " + into.precisionBits
+          + " doesn't match histogram precision " + precisionBits);
+    }
+    Arrays.fill(into.counts, 0);
+    into.totalCount = 0;
+    for (long[] stripe : stripes) {
+      for (int i = 0; i < stripe.length; i++) {
+        long count = reset
+            ? (long) COUNTS.getAndSet(stripe, i, 0L)
+            : (long) COUNTS.getOpaque(stripe, i);
+        into.counts[i] += count;
+        into.totalCount += count;
+      }
+    }
+  }
+
+  private long[] stripe() {
+    // Thread ids are sequential, so this spreads a pool's threads evenly.
+    return stripes[(int) Thread.currentThread().getId() & stripeMask];
+  }
+
+  static int bucketCount(int precisionBits) {
+    return bucketIndex(Long.MAX_VALUE, precisionBits) + 1;
+  }
+
+  static int bucketIndex(long value, int precisionBits) {
+    if (value < (1L << precisionBits)) {
+      return (int) value;
+    }
+    // Keep the top precisionBits bits of the value; the shift says which
+    // power of two we're in.
+    int shift = 64 - Long.numberOfLeadingZeros(value) - precisionBits;
+    return (shift << (precisionBits - 1)) + (int) (value >>> shift);
+  }
+
+  static long lowestValueInBucket(int index, int precisionBits) {
+    if (index < (1 << precisionBits)) {
+      return index;
+    }
+    int shift = (index >> (precisionBits - 1)) - 1;
+    long mantissa = index - (shift << (precisionBits - 1));
+    return mantissa << shift;
+  }
+
+  static long highestValueInBucket(int index, int precisionBits) {
+    if (index < (1 << precisionBits)) {
+      return index;
+    }
+    int shift = (index >> (precisionBits - 1)) - 1;
+    long mantissa = index - (shift << (precisionBits - 1));
+    // Computed as lowest + (width - 1) so the last bucket doesn't overflow.
+    return (mantissa << shift) + ((1L << shift) - 1);
+  }
+
+  /**
+   * A plain (single-threaded) copy of a histogram's counts. Snapshots of
+   * histograms with the same precision can be merged, e.g. to combine
+   * per-node or per-interval results.
+   */
+  public static final class Snapshot {
+    private final int precisionBits;
+    private final long[] counts;
+    private long totalCount;
+
+    public Snapshot(int precisionBits) {
+      this.precisionBits = precisionBits;
+      this.counts = new long[bucketCount(precisionBits)];
+    }
+
+    public long totalCount() {
+      return totalCount;
+    }
+
+    public void merge(Snapshot other) {
+      if (other.precisionBits != precisionBits) {
+        throw new IllegalArgumentException(
+            "Can't merge snapshots with precision " + other.precisionBits
+            + " and " + precisionBits);
+      }
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] += other.counts[i];
+      }
+      totalCount += other.totalCount;
+    }
+
+    /**
+     * The (highest equivalent) value at the given percentile, e.g. 99.9;
+     * 0 if nothing was recorded.
+     */
+    public long valueAtPercentile(double percentile) {
+      if (totalCount == 0) {
+        return 0;
+      }
+      double clamped = Math.min(100, Math.max(0, percentile));
+      long rank = Math.max(1, (long) Math.ceil(clamped / 100 * totalCount));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return highestValueInBucket(i, precisionBits);
+        }
+      }
+      return max();
+    }
+
+    public long min() {
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] != 0) {
+          return lowestValueInBucket(i, precisionBits);
+        }
+      }
+      return 0;
+    }
+
+    public long max() {
+      for (int i = counts.length - 1; i >= 0; i--) {
+        if (counts[i] != 0) {
+          return highestValueInBucket(i, precisionBits);
+        }
+      }
+      return 0;
+    }
+
+    /** Mean using each bucket's midpoint; 0 if nothing was recorded. */
+    public double mean() {
+      if (totalCount == 0) {
+        return 0;
+      }
+      double sum = 0;
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] != 0) {
+          double low = lowestValueInBucket(i, precisionBits);
+          double high = highestValueInBucket(i, precisionBits);
+          sum += counts[i] * (low + high) / 2;
+        }
+      }
+      return sum / totalCount;
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package io.markovic.jmh.metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A concurrent, allocation-free event counter over a sliding time window
+ * (e.g. "requests in the last minute"), for in-process rates without
+ * queueing a timestamp per event.
+ *
+ * <p>The window is split into {@code buckets} equal slices of wall-clock
+ * millis, kept in a ring. Each slot packs the number of the bucket it
+ * currently counts (its low 32 bits) together with the count into a single
+ * {@code long}, so moving a slot on to a new bucket and counting into it
+ * are the same CAS: no locks, no separate rollover step, and no increment
+ * can land in the wrong bucket. Slots are striped by thread like
+ * {@link LatencyHistogram}'s counts.
+ *
+ * <p>{@link #sum()} adds up the slots of the last {@code buckets} buckets,
+ * including the current, partial one, so it covers between
+ * {@code windowMillis - bucketMillis} and {@code windowMillis} worth of
+ * events. Counts saturate at 2^32 - 1 per bucket and stripe, and a slot
+ * nobody wrote to for 2^32 buckets can be mistaken for a current one.
+ */
+public final class WindowedCounter {
+  private static final VarHandle SLOTS =
+      MethodHandles.arrayElementVarHandle(long[].class);
+  private static final long MAX_COUNT = 0xFFFF_FFFFL;
+
+  private final long windowMillis;
+  private final long bucketMillis;
+  private final int buckets;
+  private final int stripeMask;
+  private final LongSupplier millisClock;
+  // stripes[stripe][bucket % buckets] = (int) bucket << 32 | count
+  private final long[][] stripes;
+
+  /**
+   * @param windowMillis how far back {@link #sum()} looks; a multiple of
+   *                     {@code buckets}
+   * @param buckets      how many slices the window is split into; more
+   *                     means a smoother sliding window and a slower sum
+   * @param stripes      a power of two
+   * @param millisClock  wall-clock millis, e.g.
+   *                     {@code System::currentTimeMillis}
+   */
+  public WindowedCounter(long windowMillis, int buckets, int stripes,
+                         LongSupplier millisClock) {
+    if (buckets < 1 || windowMillis < buckets
+        || windowMillis % buckets != 0) {
+      throw new IllegalArgumentException(
+          "windowMillis must be a positive multiple of buckets, got: "
+          + windowMillis + ", " + buckets);
+    }
+    if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+      throw new IllegalArgumentException(
+          "stripes must be a power of two, got: " + stripes);
+    }
+    this.windowMillis = windowMillis;
+    this.bucketMillis = windowMillis / buckets;
+    this.buckets = buckets;
+    this.stripeMask = stripes - 1;
+    this.millisClock = millisClock;
+    this.stripes = new long[stripes][buckets];
+    // Every slot starts out counting (nothing for) a bucket from the
+    // window before the current one.
+    long previous =
+        Math.floorDiv(millisClock.getAsLong(), bucketMillis) - buckets;
+    for (long[] stripe : this.stripes) {
+      for (int i = 0; i < buckets; i++) {
+        long bucket = previous - Math.floorMod(previous - i, (long) buckets);
+        stripe[i] = (long) (int) bucket << 32;
+      }
+    }
+  }
+
+  /**
+   * One stripe per hardware thread (rounded up to a power of two), on
+   * {@link System#currentTimeMillis()}.
+   */
+  public WindowedCounter(long window, TimeUnit unit, int buckets) {
+    this(unit.toMillis(window), buckets, Integer.highestOneBit(
+             Runtime.getRuntime().availableProcessors() * 2 - 1),
+         System::currentTimeMillis);
+  }
+
+  public long windowMillis() {
+    return windowMillis;
+  }
+
+  public long bucketMillis() {
+    return bucketMillis;
+  }
+
+  public void increment() {
+    add(1, millisClock.getAsLong());
+  }
+
+  public void add(long count) {
+    add(count, millisClock.getAsLong());
+  }
+
+  /**
+   * Same as {@link #add(long)} with a {@code nowMillis} the caller already
+   * read, to share one clock read between several counters. Counts for
+   * buckets that already left the window are dropped.
+   */
+  public void add(long count, long nowMillis) {
+    if (count < 0) {
+      throw new IllegalArgumentException(
+          "count must not be negative, got: " + count);
+    }
+    long bucket = Math.floorDiv(nowMillis, bucketMillis);
+    int tag = (int) bucket;
+    long[] stripe = stripe();
+    int index = (int) Math.floorMod(bucket, (long) buckets);
+    while (true) {
+      long slot = (long) SLOTS.getVolatile(stripe, index);
+      int slotTag = (int) (slot >>> 32);
+      long updated;
+      if (slotTag == tag) {
+        updated = slot + Math.min(count, MAX_COUNT - (slot & MAX_COUNT));
+      } else if (slotTag - tag > 0 && slotTag - tag <= buckets) {
+        // The next lap's bucket already took over the slot; we're a
+        // straggler with a `nowMillis` from before the window. (A slot
+        // further ahead means the clock jumped back, and we take it over.)
+        return;
+      } else {
+        updated = (long) tag << 32 | Math.min(count, MAX_COUNT);
+      }
+      if (slot == updated
+          || SLOTS.compareAndSet(stripe, index, slot, updated)) {
+        return;
+      }
+    }
+  }
+
+  /** Events counted in the window ending now. */
+  public long sum() {
+    return sum(millisClock.getAsLong());
+  }
+
+  /** Events counted in the window ending at {@code nowMillis}. */
+  public long sum(long nowMillis) {
+    long newest = Math.floorDiv(nowMillis, bucketMillis);
+    int newestTag = (int) newest;
+    long sum = 0;
+    for (long[] stripe : stripes) {
+      for (int i = 0; i < buckets; i++) {
+        long slot = (long) SLOTS.getOpaque(stripe, i);
+        // Only slots holding one of the last `buckets` buckets count.
+        int age = newestTag - (int) (slot >>> 32);
+        if (age >= 0 && age < buckets) {
+          sum += slot & MAX_COUNT;
+        }
+      }
+    }
+    return sum;
+  }
+
+  /** {@link #sum()} spread over the window, in events per second. */
+  public double ratePerSecond() {
+    return sum() * 1000.0 / windowMillis;
+  }
+
+  private long[] stripe() {
+    // Thread ids are sequential, so this spreads a pool's threads evenly.
+    return stripes[(int) Thread.currentThread().getId() & stripeMask];
+  }
+}
@@ -0,0 +1,205 @@
+package io.markovic.jmh.pipeline;
+
+import java.util.Objects;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A reusable chain of {@code int} map and filter stages, for the small
+ * inputs where an {@code IntStream}'s setup costs more than the work.
+ *
+ * <p>A stream builds its pipeline (and a sink per stage) on every call. An
+ * {@code IntPipeline} is built once, typically into a
+ * {@code static final} field, and fuses its stages into a chain of sinks
+ * as it's built: each stage pushes the {@code int}s it lets through
+ * straight into the next, and the last one into the terminal operation.
+ * The terminal (sum, count, ...) isn't known until the call, so it's
+ * handed down the chain along with its accumulator, which each stage
+ * returns: a call is a loop over the input that pushes each element in,
+ * and if the lambdas don't capture anything, it allocates nothing at all.
+ *
+ * <pre>{@code
+ * static final IntPipeline EVEN_SQUARES =
+ *     IntPipeline.identity().filter(x -> x % 2 == 0).map(x -> x * x);
+ * ...
+ * long sum = EVEN_SQUARES.sum(values);
+ * }</pre>
+ *
+ * <p>Immutable and thread-safe, as long as the stages are. No short
+ * circuiting, no parallelism, no boxing.
+ */
+public final class IntPipeline {
+  private static final IntPipeline IDENTITY =
+      new IntPipeline(null, null, null);
+
+  // The pipeline this one extends by one stage, and that stage's lambda
+  // (one of the two), kept to fuse longer pipelines from. Pipelines don't
+  // share sinks: each has its own chain, ending in its own last stage.
+  private final IntPipeline upstream;
+  private final IntUnaryOperator mapper;
+  private final IntPredicate filter;
+  private final Sink head;
+
+  private IntPipeline(IntPipeline upstream, IntUnaryOperator mapper,
+                      IntPredicate filter) {
+    this.upstream = upstream;
+    this.mapper = mapper;
+    this.filter = filter;
+    // Built from the last stage back, each sink wrapping its downstream.
+    Sink sink = new TerminalSink();
+    for (IntPipeline stage = this; stage.upstream != null;
+         stage = stage.upstream) {
+      sink = stage.mapper != null
+          ? new MapSink(stage.mapper, sink)
+          : new FilterSink(stage.filter, sink);
+    }
+    this.head = sink;
+  }
+
+  /** The pipeline that passes every element through unchanged. */
+  public static IntPipeline identity() {
+    return IDENTITY;
+  }
+
+  /** A new pipeline: this one, followed by {@code mapper}. */
+  public IntPipeline map(IntUnaryOperator mapper) {
+    return new IntPipeline(this, Objects.requireNonNull(mapper), null);
+  }
+
+  /** A new pipeline: this one, keeping only what {@code filter} accepts. */
+  public IntPipeline filter(IntPredicate filter) {
+    return new IntPipeline(this, null, Objects.requireNonNull(filter));
+  }
+
+  public long sum(int[] values) {
+    return sum(values, 0, values.length);
+  }
+
+  /** The sum of the elements of {@code values[from, to)} that get through. */
+  public long sum(int[] values, int from, int to) {
+    checkRange(values, from, to);
+    Sink head = this.head;
+    long sum = 0;
+    for (int i = from; i < to; i++) {
+      sum = head.accept(sum, values[i], Terminal.SUM, null);
+    }
+    return sum;
+  }
+
+  /** How many elements of {@code values} get through. */
+  public int count(int[] values) {
+    Sink head = this.head;
+    long count = 0;
+    for (int value : values) {
+      count = head.accept(count, value, Terminal.COUNT, null);
+    }
+    return (int) count;
+  }
+
+  /** Like {@code IntStream.reduce(identity, op)}. */
+  public int reduce(int[] values, int identity, IntBinaryOperator op) {
+    Objects.requireNonNull(op);
+    Sink head = this.head;
+    long result = identity;
+    for (int value : values) {
+      result = head.accept(result, value, Terminal.REDUCE, op);
+    }
+    return (int) result;
+  }
+
+  public void forEach(int[] values, IntConsumer action) {
+    Objects.requireNonNull(action);
+    Sink head = this.head;
+    for (int value : values) {
+      head.accept(0, value, Terminal.FOR_EACH, action);
+    }
+  }
+
+  private static void checkRange(int[] values, int from, int to) {
+    if (from < 0 || from > to || to > values.length) {
+      throw new IndexOutOfBoundsException(
+          "Range [" + from + ", " + to + ") out of bounds for length "
+          + values.length);
+    }
+  }
+
+  // A stage: takes an element and the terminal's accumulator, and returns
+  // the accumulator after pushing whatever the element becomes downstream.
+  private abstract static class Sink {
+    abstract long accept(long acc, int value, Terminal terminal, Object op);
+  }
+
+  private static final class MapSink extends Sink {
+    private final IntUnaryOperator mapper;
+    private final Sink downstream;
+
+    MapSink(IntUnaryOperator mapper, Sink downstream) {
+      this.mapper = mapper;
+      this.downstream = downstream;
+    }
+
+    @Override
+    long accept(long acc, int value, Terminal terminal, Object op) {
+      return downstream.accept(acc, mapper.applyAsInt(value), terminal, op);
+    }
+  }
+
+  private static final class FilterSink extends Sink {
+    private final IntPredicate filter;
+    private final Sink downstream;
+
+    FilterSink(IntPredicate filter, Sink downstream) {
+      this.filter = filter;
+      this.downstream = downstream;
+    }
+
+    @Override
+    long accept(long acc, int value, Terminal terminal, Object op) {
+      return filter.test(value)
+          ? downstream.accept(acc, value, terminal, op)
+          : acc;
+    }
+  }
+
+  private static final class TerminalSink extends Sink {
+    @Override
+    long accept(long acc, int value, Terminal terminal, Object op) {
+      return terminal.accept(acc, value, op);
+    }
+  }
+
+  // The terminal operations, as singletons, so that a call allocates
+  // nothing: reduce's and forEach's lambda travels down the chain as
+  // `op` instead of being captured in a terminal of its own.
+  private abstract static class Terminal {
+    static final Terminal SUM = new Terminal() {
+      @Override
+      long accept(long acc, int value, Object op) {
+        return acc + value;
+      }
+    };
+    static final Terminal COUNT = new Terminal() {
+      @Override
+      long accept(long acc, int value, Object op) {
+        return acc + 1;
+      }
+    };
+    static final Terminal REDUCE = new Terminal() {
+      @Override
+      long accept(long acc, int value, Object op) {
+        return ((IntBinaryOperator) op).applyAsInt((int) acc, value);
+      }
+    };
+    static final Terminal FOR_EACH = new Terminal() {
+      @Override
+      long accept(long acc, int value, Object op) {
+        ((IntConsumer) op).accept(value);
+        return acc;
+      }
+    };
+
+    abstract long accept(long acc, int value, Object op);
+  }
+}
@@ -0,0 +1,132 @@
+package io.markovic.jmh.ratelimit;
+
+import io.markovic.jmh.clock.MonotonicClock;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A lock-free rate limiter implementing GCRA (the Generic Cell Rate
+ * Algorithm), which behaves exactly like a token bucket but only needs a
+ * single {@code long} of state: the "theoretical arrival time" of the next
+ * permit. {@link #tryAcquire()} is one clock read plus (when the permit is
+ * granted) one CAS, and never allocates.
+ *
+ * <p>With more than one stripe, the rate and burst are split evenly between
+ * independent buckets and each thread always uses the same one. That keeps
+ * threads from fighting over one cache line at the price of the limit being
+ * enforced per stripe: a thread can be rejected while another stripe still
+ * has permits to spare.
+ */
+public final class GcraRateLimiter {
+  private static final VarHandle TATS =
+      MethodHandles.arrayElementVarHandle(long[].class);
+
+  // Stripes live 16 longs (128 bytes) apart so that no two of them share a
+  // cache line, even with adjacent-line prefetching. The first one starts
+  // STRIDE in, away from the array header, whose length every stripe's
+  // bounds check reads.
+  private static final int STRIDE = 16;
+
+  private final MonotonicClock clock;
+  private final long emissionIntervalNanos;
+  private final long burstToleranceNanos;
+  // The most permits one call can ever get: a stripe's share of the burst.
+  private final int maxPermits;
+  private final int stripeMask;
+  // Theoretical arrival time of the next permit, per stripe.
+  private final long[] tats;
+
+  /**
+   * @param permitsPerSecond sustained rate, across all stripes
+   * @param burst            how many permits can be taken back-to-back after
+   *                         a period of inactivity, across all stripes
+   * @param stripes          number of independent buckets; a power of two
+   */
+  public GcraRateLimiter(double permitsPerSecond, int burst, int stripes,
+                         MonotonicClock clock) {
+    if (!(permitsPerSecond > 0)) {
+      throw new IllegalArgumentException(
+          "permitsPerSecond must be positive, got: " + permitsPerSecond);
+    }
+    if (burst < 1) {
+      throw new IllegalArgumentException(
+          "burst must be at least 1, got: " + burst);
+    }
+    if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+      throw new IllegalArgumentException(
+          "stripes must be a power of two, got: " + stripes);
+    }
+    this.clock = clock;
+    this.emissionIntervalNanos =
+        Math.max(1, Math.round(1e9 * stripes / permitsPerSecond));
+    int burstPerStripe = Math.max(1, burst / stripes);
+    // Throws rather than wrap for a rate too low to express with this burst.
+    this.burstToleranceNanos =
+        Math.multiplyExact(emissionIntervalNanos, burstPerStripe - 1L);
+    this.maxPermits = burstPerStripe;
+    this.stripeMask = stripes - 1;
+
+    this.tats = new long[(stripes + 1) * STRIDE];
+    long now = clock.nanos();
+    for (int stripe = 0; stripe < stripes; stripe++) {
+      tats[(stripe + 1) * STRIDE] = now;
+    }
+  }
+
+  public GcraRateLimiter(double permitsPerSecond, int burst) {
+    this(permitsPerSecond, burst, 1, MonotonicClock.SYSTEM);
+  }
+
+  public boolean tryAcquire() {
+    return tryAcquire(1, clock.nanos());
+  }
+
+  /**
+   * Takes {@code permits} permits at once if they're all available, and
+   * none otherwise. More than a stripe's share of the burst is never
+   * available. Throws {@code IllegalArgumentException} if {@code permits}
+   * is less than 1.
+   */
+  public boolean tryAcquire(int permits) {
+    return tryAcquire(permits, clock.nanos());
+  }
+
+  /**
+   * Same as {@link #tryAcquire(int)} with a {@code nowNanos} the caller
+   * already read from this limiter's clock, to share one clock read between
+   * several limiters.
+   */
+  public boolean tryAcquire(int permits, long nowNanos) {
+    if (permits < 1) {
+      throw new IllegalArgumentException(
+          "permits must be at least 1, got: " + permits);
+    }
+    if (permits > maxPermits) {
+      return false;
+    }
+    int index = stripeIndex();
+    // Can't overflow: at most emissionIntervalNanos + burstToleranceNanos.
+    long increment = emissionIntervalNanos * permits;
+    while (true) {
+      long tat = (long) TATS.getVolatile(tats, index);
+      // An idle bucket doesn't accumulate more than `burst` permits: its
+      // TAT is never allowed to fall behind "now".
+      long base = tat - nowNanos > 0 ? tat : nowNanos;
+      long newTat = base + increment;
+      if (newTat - nowNanos > burstToleranceNanos + emissionIntervalNanos) {
+        return false;
+      }
+      if (TATS.compareAndSet(tats, index, tat, newTat)) {
+        return true;
+      }
+    }
+  }
+
+  private int stripeIndex() {
+    if (stripeMask == 0) {
+      return STRIDE;
+    }
+    // Thread ids are sequential, so this spreads a pool's threads evenly.
+    return (((int) Thread.currentThread().getId() & stripeMask) + 1) * STRIDE;
+  }
+}
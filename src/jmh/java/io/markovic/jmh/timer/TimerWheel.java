@@ -0,0 +1,274 @@
+package io.markovic.jmh.timer;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * A hierarchical timer wheel (the classic Linux kernel design) for
+ * timeouts that mostly get cancelled before they fire.
+ *
+ * <p>Deadlines are raw {@link System#nanoTime()}-style {@code long}s and
+ * every timer is just a row in a handful of primitive arrays, so scheduling,
+ * cancelling and expiring timers never allocates (the arrays only grow when
+ * more timers are pending than ever before). Instead of a callback object
+ * per timer, each timer carries a {@code long} payload (a request id, an
+ * index into your own table, ...) that's handed to a single
+ * {@link LongConsumer} when it expires.
+ *
+ * <p>Schedule and cancel are O(1). Each tick looks at one slot of the
+ * innermost wheel; timers further out sit in coarser outer wheels and get
+ * cascaded inwards as time gets closer to them, so far-away timers (the ones
+ * that usually get cancelled) are touched at most once per level.
+ *
+ * <p>Timers fire on the first {@link #expire(long)} call at or after the
+ * end of the tick their deadline falls in, so up to one tick late but never
+ * early.
+ *
+ * <p>NOT thread-safe; like an event loop, one thread owns the wheel. The
+ * expiry callback may schedule and cancel timers but must not call
+ * {@link #expire(long)}.
+ */
+public final class TimerWheel {
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS_PER_LEVEL = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+  private static final int LEVELS = 6;
+  // With 1 ms ticks, the outermost level reaches ~2 years into the future.
+  // Timers beyond that get parked in the outermost level and re-cascaded.
+  private static final long MAX_TICKS_AHEAD =
+      (1L << (SLOT_BITS * LEVELS)) - 1;
+
+  // Lists 0 .. LEVELS * SLOTS_PER_LEVEL - 1 are the wheel slots; the one
+  // after that holds timers that expired on the tick being processed.
+  private static final int EXPIRED_LIST = LEVELS * SLOTS_PER_LEVEL;
+  private static final int FREE = -1;
+  private static final int NIL = -1;
+
+  private final long startNanos;
+  private final long tickNanos;
+  private final LongConsumer onExpired;
+  private final int[] heads = new int[EXPIRED_LIST + 1];
+
+  // The last tick that was fully processed; tick N covers the time range
+  // (startNanos + (N - 1) * tickNanos, startNanos + N * tickNanos].
+  private long currentTick;
+  private int size;
+
+  // One row per timer. Free rows are chained through next[].
+  private long[] deadlines;
+  private long[] payloads;
+  private int[] next;
+  private int[] prev;
+  private int[] lists;
+  private int[] generations;
+  private int freeHead = NIL;
+
+  public TimerWheel(long tickNanos, long startNanos, int initialCapacity,
+                    LongConsumer onExpired) {
+    if (tickNanos <= 0) {
+      throw new IllegalArgumentException(
+          "tickNanos must be positive, got: " + tickNanos);
+    }
+    if (initialCapacity <= 0) {
+      throw new IllegalArgumentException(
+          "initialCapacity must be positive, got: " + initialCapacity);
+    }
+    this.tickNanos = tickNanos;
+    this.startNanos = startNanos;
+    this.onExpired = onExpired;
+    Arrays.fill(heads, NIL);
+
+    deadlines = new long[0];
+    payloads = new long[0];
+    next = new int[0];
+    prev = new int[0];
+    lists = new int[0];
+    generations = new int[0];
+    grow(initialCapacity);
+  }
+
+  /** Number of timers that haven't fired or been cancelled yet. */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Schedules a timer and returns a handle for {@link #cancel(long)}.
+   * Deadlines in the past fire on the next tick.
+   */
+  public long schedule(long deadlineNanos, long payload) {
+    if (freeHead == NIL) {
+      grow(deadlines.length * 2);
+    }
+    int timer = freeHead;
+    freeHead = next[timer];
+
+    deadlines[timer] = deadlineNanos;
+    payloads[timer] = payload;
+    insert(timer);
+    size++;
+    return ((long) generations[timer] << 32) | timer;
+  }
+
+  /**
+   * Returns false if the timer already fired or was already cancelled
+   * (handles of fired/cancelled timers never match a newer timer).
+   */
+  public boolean cancel(long handle) {
+    int timer = (int) handle;
+    int generation = (int) (handle >>> 32);
+    if (timer < 0 || timer >= lists.length
+        || lists[timer] == FREE || generations[timer] != generation) {
+      return false;
+    }
+    unlink(timer);
+    release(timer);
+    return true;
+  }
+
+  /**
+   * Advances the wheel to {@code nowNanos}, firing every timer whose tick
+   * has fully elapsed. Returns the number of timers that fired.
+   */
+  public int expire(long nowNanos) {
+    long targetTick = Math.floorDiv(nowNanos - startNanos, tickNanos);
+    if (size == 0) {
+      // Nothing to fire or cascade, so skip straight there instead of
+      // walking through (potentially many) empty ticks.
+      currentTick = Math.max(currentTick, targetTick);
+      return 0;
+    }
+
+    int fired = 0;
+    while (currentTick < targetTick) {
+      long tick = currentTick + 1;
+      processTick(tick);
+      currentTick = tick;
+      fired += drainExpired();
+    }
+    return fired;
+  }
+
+  private void processTick(long tick) {
+    int index = (int) (tick & SLOT_MASK);
+    if (index == 0) {
+      // The innermost wheel wrapped around, so pull the next slot of the
+      // level above into it (and so on up, for each level that wrapped).
+      for (int level = 1; level < LEVELS; level++) {
+        int levelIndex = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        cascade(level * SLOTS_PER_LEVEL + levelIndex);
+        if (levelIndex != 0) {
+          break;
+        }
+      }
+    }
+
+    int timer = heads[index];
+    heads[index] = NIL;
+    while (timer != NIL) {
+      int following = next[timer];
+      if (deadlineTick(timer) <= tick) {
+        link(timer, EXPIRED_LIST);
+      } else {
+        // Only timers clamped to MAX_TICKS_AHEAD can get here.
+        insert(timer);
+      }
+      timer = following;
+    }
+  }
+
+  private void cascade(int list) {
+    int timer = heads[list];
+    heads[list] = NIL;
+    while (timer != NIL) {
+      int following = next[timer];
+      insert(timer);
+      timer = following;
+    }
+  }
+
+  private int drainExpired() {
+    int fired = 0;
+    int timer;
+    // Re-read the head every time; the callback may cancel other timers
+    // that expired on this same tick.
+    while ((timer = heads[EXPIRED_LIST]) != NIL) {
+      long payload = payloads[timer];
+      unlink(timer);
+      release(timer);
+      fired++;
+      onExpired.accept(payload);
+    }
+    return fired;
+  }
+
+  private long deadlineTick(int timer) {
+    // Round up, so a timer never fires before its deadline.
+    return -Math.floorDiv(startNanos - deadlines[timer], tickNanos);
+  }
+
+  private void insert(int timer) {
+    long firstPendingTick = currentTick + 1;
+    long expiresTick = Math.max(deadlineTick(timer), firstPendingTick);
+    long ticksAhead = expiresTick - firstPendingTick;
+    if (ticksAhead > MAX_TICKS_AHEAD) {
+      ticksAhead = MAX_TICKS_AHEAD;
+      expiresTick = firstPendingTick + MAX_TICKS_AHEAD;
+    }
+
+    int level = 0;
+    while (ticksAhead >= 1L << (SLOT_BITS * (level + 1))) {
+      level++;
+    }
+    int slot = (int) ((expiresTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    link(timer, level * SLOTS_PER_LEVEL + slot);
+  }
+
+  private void link(int timer, int list) {
+    int head = heads[list];
+    next[timer] = head;
+    prev[timer] = NIL;
+    if (head != NIL) {
+      prev[head] = timer;
+    }
+    heads[list] = timer;
+    lists[timer] = list;
+  }
+
+  private void unlink(int timer) {
+    int before = prev[timer];
+    int after = next[timer];
+    if (before != NIL) {
+      next[before] = after;
+    } else {
+      heads[lists[timer]] = after;
+    }
+    if (after != NIL) {
+      prev[after] = before;
+    }
+  }
+
+  private void release(int timer) {
+    // Bumping the generation invalidates any handle still pointing here.
+    generations[timer]++;
+    lists[timer] = FREE;
+    next[timer] = freeHead;
+    freeHead = timer;
+    size--;
+  }
+
+  private void grow(int capacity) {
+    int oldCapacity = deadlines.length;
+    deadlines = Arrays.copyOf(deadlines, capacity);
+    payloads = Arrays.copyOf(payloads, capacity);
+    next = Arrays.copyOf(next, capacity);
+    prev = Arrays.copyOf(prev, capacity);
+    lists = Arrays.copyOf(lists, capacity);
+    generations = Arrays.copyOf(generations, capacity);
+    for (int timer = capacity - 1; timer >= oldCapacity; timer--) {
+      lists[timer] = FREE;
+      next[timer] = freeHead;
+      freeHead = timer;
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package io.markovic.jmh.zone;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps epoch millis to a zone's UTC offset, like
+ * {@code zone.getRules().getOffset(Instant.ofEpochMilli(millis))}, but
+ * without the Instant, the binary search over transitions or (for years
+ * past the last explicit transition) the per-year rules lookup.
+ *
+ * <p>All transitions in {@code [fromYear, toYear)} are precomputed into a
+ * table, plus an index with the first table entry of every ~24.9 day
+ * (2^31 ms) bucket. A lookup is a shift, an index read and usually one
+ * comparison (more only if several transitions share a bucket, which no
+ * real zone does for long), and returns a shared {@link ZoneOffset}, so it
+ * doesn't allocate. Millis outside of the cached years fall back to
+ * {@link ZoneRules}.
+ *
+ * <p>Instances are immutable and thread-safe. A table costs ~8 KB per
+ * century cached; {@link #forZone(ZoneId)} shares one per zone.
+ */
+public final class ZoneOffsetCache {
+  public static final int DEFAULT_FROM_YEAR = 1970;
+  public static final int DEFAULT_TO_YEAR = 2100;
+
+  private static final int BUCKET_SHIFT = 31;
+  private static final ConcurrentHashMap<ZoneId, ZoneOffsetCache> CACHES =
+      new ConcurrentHashMap<>();
+
+  private final ZoneId zone;
+  private final ZoneRules rules;
+  private final long fromMillis;
+  private final long toMillis;
+  private final long firstBucket;
+  // Entry i is offsets[i] from starts[i] (inclusive) to starts[i + 1]; the
+  // last start is Long.MAX_VALUE, so lookups never run off the end.
+  private final long[] starts;
+  private final ZoneOffset[] offsets;
+  // The entry in effect at the start of each bucket.
+  private final int[] bucketEntries;
+
+  /** Caches {@link #DEFAULT_FROM_YEAR} until {@link #DEFAULT_TO_YEAR}. */
+  public ZoneOffsetCache(ZoneId zone) {
+    this(zone, DEFAULT_FROM_YEAR, DEFAULT_TO_YEAR);
+  }
+
+  /** Caches from the start of {@code fromYear} until {@code toYear} (UTC). */
+  public ZoneOffsetCache(ZoneId zone, int fromYear, int toYear) {
+    if (fromYear >= toYear) {
+      throw new IllegalArgumentException(
+          "fromYear must be before toYear, got: " + fromYear + ", " + toYear);
+    }
+    this.zone = zone;
+    this.rules = zone.getRules();
+    this.fromMillis = startOfYearMillis(fromYear);
+    this.toMillis = startOfYearMillis(toYear);
+
+    long[] starts = new long[16];
+    ZoneOffset[] offsets = new ZoneOffset[16];
+    Instant from = Instant.ofEpochMilli(fromMillis);
+    starts[0] = fromMillis;
+    offsets[0] = rules.getOffset(from);
+    int count = 1;
+    ZoneOffsetTransition transition = rules.nextTransition(from);
+    while (transition != null
+           && transition.toEpochSecond() * 1000 < toMillis) {
+      if (count == starts.length) {
+        starts = Arrays.copyOf(starts, count * 2);
+        offsets = Arrays.copyOf(offsets, count * 2);
+      }
+      starts[count] = transition.toEpochSecond() * 1000;
+      offsets[count] = transition.getOffsetAfter();
+      count++;
+      transition = rules.nextTransition(transition.getInstant());
+    }
+    this.starts = Arrays.copyOf(starts, count + 1);
+    this.starts[count] = Long.MAX_VALUE;
+    this.offsets = Arrays.copyOf(offsets, count);
+
+    this.firstBucket = fromMillis >> BUCKET_SHIFT;
+    this.bucketEntries =
+        new int[(int) (((toMillis - 1) >> BUCKET_SHIFT) - firstBucket + 1)];
+    int entry = 0;
+    for (int bucket = 0; bucket < bucketEntries.length; bucket++) {
+      long bucketStart = (firstBucket + bucket) << BUCKET_SHIFT;
+      while (this.starts[entry + 1] <= bucketStart) {
+        entry++;
+      }
+      bucketEntries[bucket] = entry;
+    }
+  }
+
+  /** A shared cache for {@code zone}, covering the default years. */
+  public static ZoneOffsetCache forZone(ZoneId zone) {
+    // get() first: computeIfAbsent may lock the bin even on a hit.
+    ZoneOffsetCache cache = CACHES.get(zone);
+    return cache != null
+        ? cache
+        : CACHES.computeIfAbsent(zone, ZoneOffsetCache::new);
+  }
+
+  public ZoneId zone() {
+    return zone;
+  }
+
+  public ZoneOffset offset(long epochMillis) {
+    if (epochMillis < fromMillis || epochMillis >= toMillis) {
+      return rules.getOffset(Instant.ofEpochMilli(epochMillis));
+    }
+    int entry =
+        bucketEntries[(int) ((epochMillis >> BUCKET_SHIFT) - firstBucket)];
+    while (epochMillis >= starts[entry + 1]) {
+      entry++;
+    }
+    return offsets[entry];
+  }
+
+  public int offsetSeconds(long epochMillis) {
+    return offset(epochMillis).getTotalSeconds();
+  }
+
+  /** Epoch millis shifted to local wall-clock time, for rendering. */
+  public long toLocalMillis(long epochMillis) {
+    return epochMillis + offsetSeconds(epochMillis) * 1000L;
+  }
+
+  private static long startOfYearMillis(int year) {
+    return ZonedDateTime.of(year, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC)
+                        .toInstant()
+                        .toEpochMilli();
+  }
+}